@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package event;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands {@link Event}s to another {@link EventHandler} on a dedicated thread,
+ * so that a slow handler does not hold up the thread which dispatched them.
+ * 
+ * Up to a fixed number of {@link Event}s are buffered. Once the buffer is
+ * full the dispatching thread waits for room, so a handler which cannot keep
+ * up slows the dispatcher down instead of using more and more memory.
+ * {@link Event}s are handled in the order they were dispatched.
+ * 
+ * The delivery thread only sees the {@link Event} itself, later than it was
+ * dispatched, so the wrapped handler should not depend on any other state
+ * still being the same as when the {@link Event} was dispatched.
+ * 
+ * @author Mike Johnson
+ * 
+ * @param <E> the type of {@link Event} handled
+ */
+public class AsynchronousEventHandler<E extends Event> implements
+		EventHandler<E>, Runnable
+{
+	/**
+	 * How long the delivery thread waits for an {@link Event} before checking
+	 * whether it has been closed
+	 */
+	protected static final long			POLL_MILLIS	= 100;
+	
+	/**
+	 * The handler the {@link Event}s are delivered to
+	 */
+	protected EventHandler<? super E>	handler		= null;
+	
+	/**
+	 * The {@link Event}s waiting to be delivered
+	 */
+	protected ArrayBlockingQueue<E>		buffer		= null;
+	
+	/**
+	 * The thread the {@link Event}s are delivered on
+	 */
+	protected Thread					thread		= null;
+	
+	/**
+	 * False once no more {@link Event}s will be accepted
+	 */
+	protected volatile boolean			open		= true;
+	
+	/**
+	 * Creates the handler and starts its delivery thread
+	 * 
+	 * @param h the handler to deliver the {@link Event}s to
+	 * @param capacity the number of {@link Event}s which may be waiting for
+	 *            delivery
+	 */
+	public AsynchronousEventHandler (EventHandler<? super E> h, int capacity)
+	{
+		if (h == null) { throw new IllegalArgumentException(
+				"Handler must not be null"); }
+		
+		if (capacity < 1) { throw new IllegalArgumentException(
+				"Capacity must be at least 1: " + capacity); }
+		
+		handler = h;
+		buffer = new ArrayBlockingQueue<E>(capacity);
+		
+		thread =
+				new Thread(this, "EventDelivery-"
+						+ h.getClass().getSimpleName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see event.EventHandler#handleEvent(event.Event)
+	 */
+	@Override
+	public void handleEvent (E evt)
+	{
+		if (!open) { throw new IllegalStateException(
+				"Handler has been closed"); }
+		
+		try
+		{
+			buffer.put(evt);
+		}
+		catch (InterruptedException e)
+		{
+			// keep the interrupt for the dispatching thread to deal with
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run ()
+	{
+		while (open || !buffer.isEmpty())
+		{
+			try
+			{
+				E evt = buffer.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				
+				if (evt != null)
+				{
+					handler.handleEvent(evt);
+				}
+			}
+			catch (InterruptedException e)
+			{
+				// the loop ends once closed and drained, not when interrupted
+				continue;
+			}
+			catch (RuntimeException e)
+			{
+				// one bad event should not stop the delivery of the rest
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * Stops accepting {@link Event}s and waits for the ones already buffered
+	 * to be delivered
+	 * 
+	 * @throws InterruptedException
+	 */
+	public void close () throws InterruptedException
+	{
+		open = false;
+		
+		if (Thread.currentThread() != thread)
+		{
+			thread.join();
+		}
+	}
+	
+	/**
+	 * Gets the number of {@link Event}s waiting to be delivered
+	 * 
+	 * @return
+	 */
+	public int getPending ()
+	{
+		return buffer.size();
+	}
+	
+	/**
+	 * Gets the handler the {@link Event}s are delivered to
+	 * 
+	 * @return
+	 */
+	public EventHandler<? super E> getHandler ()
+	{
+		return handler;
+	}
+}
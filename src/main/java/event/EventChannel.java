@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded ring buffer which carries {@link Event}s from any number of robot
+ * threads to the single thread which processes them.
+ * 
+ * The slots are allocated once, when the channel is created. Each slot has a
+ * sequence number that tells the producers when it is free and the consumer
+ * when it has been filled, so neither side takes a lock. A producer claims a
+ * slot by advancing the tail with a compare and set, fills it and then
+ * publishes it by updating its sequence number. Only the consumer advances
+ * the head, so it needs no atomic operations at all.
+ * 
+ * The consumer parks while the channel is empty and is unparked by the next
+ * producer to publish an {@link Event}.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class EventChannel
+{
+	/**
+	 * The preallocated slots
+	 */
+	protected Event[]			slots		= null;
+	
+	/**
+	 * The sequence number of each slot. A slot at position p may be filled
+	 * when its sequence is p, and may be read when its sequence is p + 1.
+	 */
+	protected AtomicLongArray	sequences	= null;
+	
+	/**
+	 * The capacity minus one, the capacity is always a power of two
+	 */
+	protected int				mask		= 0;
+	
+	/**
+	 * The position of the next slot a producer will claim
+	 */
+	protected AtomicLong		tail		= new AtomicLong();
+	
+	/**
+	 * The position of the next slot the consumer will read, only ever used by
+	 * the consumer
+	 */
+	protected long				head		= 0;
+	
+	/**
+	 * The consumer while it is parked waiting for an {@link Event}, otherwise
+	 * null
+	 */
+	protected volatile Thread	consumer	= null;
+	
+	/**
+	 * @param capacity the number of {@link Event}s the channel can hold. It is
+	 *            rounded up to the next power of two.
+	 */
+	public EventChannel (int capacity)
+	{
+		if (capacity < 1 || capacity > 1 << 30) { throw new IllegalArgumentException(
+				"Capacity must be between 1 and 2^30: " + capacity); }
+		
+		int size = Integer.highestOneBit(capacity);
+		
+		if (size < capacity)
+		{
+			size <<= 1;
+		}
+		
+		slots = new Event[size];
+		sequences = new AtomicLongArray(size);
+		mask = size - 1;
+		
+		for (int i = 0; i < size; i++ )
+		{
+			sequences.set(i, i);
+		}
+	}
+	
+	/**
+	 * Adds an {@link Event} to the channel if there is room for it
+	 * 
+	 * @param evt
+	 * @return false if the channel is full
+	 */
+	public boolean offer (Event evt)
+	{
+		if (evt == null) { throw new NullPointerException(); }
+		
+		long pos = 0;
+		int index = 0;
+		
+		while (true)
+		{
+			pos = tail.get();
+			index = (int) pos & mask;
+			
+			long diff = sequences.get(index) - pos;
+			
+			if (diff == 0)
+			{
+				if (tail.compareAndSet(pos, pos + 1))
+				{
+					break;
+				}
+			}
+			else if (diff < 0)
+			{
+				// the consumer has not read the slot yet
+				return false;
+			}
+			
+			// otherwise another producer claimed the slot first
+		}
+		
+		slots[index] = evt;
+		sequences.set(index, pos + 1);
+		
+		Thread waiting = consumer;
+		
+		if (waiting != null)
+		{
+			LockSupport.unpark(waiting);
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Adds an {@link Event} to the channel, waiting for room if it is full
+	 * 
+	 * @param evt
+	 * @throws InterruptedException
+	 */
+	public void put (Event evt) throws InterruptedException
+	{
+		while (!offer(evt))
+		{
+			if (Thread.interrupted()) { throw new InterruptedException(); }
+			
+			Thread.yield();
+		}
+	}
+	
+	/**
+	 * Removes the oldest {@link Event} from the channel. Must only be called
+	 * by the consumer.
+	 * 
+	 * @return the {@link Event}, null if the channel is empty
+	 */
+	public Event poll ()
+	{
+		int index = (int) head & mask;
+		
+		if (sequences.get(index) != head + 1) { return null; }
+		
+		Event evt = slots[index];
+		slots[index] = null;
+		
+		// free the slot for the next lap around the ring
+		sequences.set(index, head + mask + 1);
+		head++ ;
+		
+		return evt;
+	}
+	
+	/**
+	 * Removes the oldest {@link Event} from the channel, waiting for one if it
+	 * is empty. Must only be called by the consumer.
+	 * 
+	 * @return
+	 * @throws InterruptedException
+	 */
+	public Event take () throws InterruptedException
+	{
+		return poll(-1);
+	}
+	
+	/**
+	 * Removes the oldest {@link Event} from the channel, waiting up to a
+	 * timeout for one if it is empty. Must only be called by the consumer.
+	 * 
+	 * @param nanos the longest time to wait, negative to wait forever
+	 * @return the {@link Event}, null if the timeout passed first
+	 * @throws InterruptedException
+	 */
+	public Event poll (long nanos) throws InterruptedException
+	{
+		Event evt = poll();
+		
+		if (evt != null) { return evt; }
+		
+		long end = System.nanoTime() + nanos;
+		
+		consumer = Thread.currentThread();
+		
+		try
+		{
+			// check again after announcing ourselves, so that an event
+			// published in between is not missed
+			while ((evt = poll()) == null)
+			{
+				if (Thread.interrupted()) { throw new InterruptedException(); }
+				
+				if (nanos < 0)
+				{
+					LockSupport.park(this);
+				}
+				else
+				{
+					long remaining = end - System.nanoTime();
+					
+					if (remaining <= 0) { return null; }
+					
+					LockSupport.parkNanos(this, remaining);
+				}
+			}
+			
+			return evt;
+		}
+		finally
+		{
+			consumer = null;
+		}
+	}
+	
+	/**
+	 * Gets the number of {@link Event}s the channel can hold
+	 * 
+	 * @return
+	 */
+	public int getCapacity ()
+	{
+		return slots.length;
+	}
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package event;
+
+/**
+ * A set of {@link EventChannel}s with one channel for each type of
+ * {@link Event}. Every {@link Event} is routed by its class, so the thread
+ * which processes them never sees an {@link Event} of a type it is not
+ * currently waiting for.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class EventChannels
+{
+	/**
+	 * The class of {@link Event} carried by each channel
+	 */
+	protected Class<?>[]		types		= null;
+	
+	/**
+	 * The channel for each type
+	 */
+	protected EventChannel[]	channels	= null;
+	
+	/**
+	 * @param capacity the capacity of each channel
+	 * @param eventTypes the classes of {@link Event} to create channels for
+	 */
+	public EventChannels (int capacity, Class<?>... eventTypes)
+	{
+		types = eventTypes.clone();
+		channels = new EventChannel[types.length];
+		
+		for (int i = 0; i < types.length; i++ )
+		{
+			channels[i] = new EventChannel(capacity);
+		}
+	}
+	
+	/**
+	 * Gets the channel which carries a type of {@link Event}
+	 * 
+	 * @param type
+	 * @return
+	 */
+	public EventChannel getChannel (Class<?> type)
+	{
+		// there are only a handful of types, so a scan beats hashing
+		for (int i = 0; i < types.length; i++ )
+		{
+			if (types[i] == type) { return channels[i]; }
+		}
+		
+		throw new IllegalArgumentException("No channel for "
+				+ (type == null ? null : type.getSimpleName()));
+	}
+	
+	/**
+	 * Adds an {@link Event} to the channel for its type, waiting for room if
+	 * it is full
+	 * 
+	 * @param evt
+	 * @throws InterruptedException
+	 */
+	public void put (Event evt) throws InterruptedException
+	{
+		getChannel(evt.getClass()).put(evt);
+	}
+}
@@ -16,27 +16,317 @@
  *******************************************************************************/
 package event;
 
-import java.util.Observable;
-import java.util.Observer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * This class extends the {@link Observable} class to facilitate easy
- * dispatching of {@link Event}s to {@link EventListener}s
+ * This class dispatches {@link Event}s to the {@link EventListener}s and
+ * {@link EventHandler}s registered with it.
+ * 
+ * The registrations are kept in an array which is replaced, never modified,
+ * whenever a listener is added or removed. Dispatching only reads the current
+ * array, so it takes no lock and several threads may dispatch at once. Each
+ * {@link EventHandler} is registered for a type of {@link Event} and is only
+ * given {@link Event}s of that type. A slow handler may be registered with
+ * {@link EventDispatcher#addAsynchronousHandler(Class, EventHandler, int)} so
+ * that it receives its {@link Event}s on a thread of its own.
  * 
  * @author Mike Johnson
  * 
  */
-public class EventDispatcher extends Observable
+public class EventDispatcher
 {
 	/**
-	 * Dispatches a given {@link Event} to {@link EventListener} that have been
-	 * added as {@link Observer}s
+	 * A handler together with the type of {@link Event} it was registered for
+	 */
+	protected static class Registration
+	{
+		/**
+		 * The type of {@link Event} delivered to the handler
+		 */
+		protected Class<?>				type		= null;
+		
+		/**
+		 * The handler
+		 */
+		protected EventHandler<Event>	handler		= null;
+		
+		/**
+		 * The object the caller registered, used to remove the registration
+		 */
+		protected Object				registered	= null;
+		
+		@SuppressWarnings("unchecked")
+		protected Registration (Class<?> t, EventHandler<?> h, Object r)
+		{
+			type = t;
+			handler = (EventHandler<Event>) h;
+			registered = r;
+		}
+	}
+	
+	/**
+	 * Delivers every {@link Event} to an {@link EventListener}
+	 */
+	protected static class ListenerHandler implements EventHandler<Event>
+	{
+		protected EventListener	listener	= null;
+		
+		protected ListenerHandler (EventListener l)
+		{
+			listener = l;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see event.EventHandler#handleEvent(event.Event)
+		 */
+		@Override
+		public void handleEvent (Event evt)
+		{
+			listener.receiveEvent(evt);
+		}
+	}
+	
+	/**
+	 * The current registrations, replaced as a whole on every change
+	 */
+	protected AtomicReference<Registration[]>	registrations	= null;
+	
+	public EventDispatcher ()
+	{
+		registrations =
+				new AtomicReference<Registration[]>(new Registration[0]);
+	}
+	
+	/**
+	 * Adds an {@link EventListener} which receives every {@link Event}
+	 * 
+	 * @param l
+	 */
+	public void addListener (EventListener l)
+	{
+		if (l == null) { throw new IllegalArgumentException(
+				"Listener must not be null"); }
+		
+		add(new Registration(Event.class, new ListenerHandler(l), l));
+	}
+	
+	/**
+	 * Adds an {@link EventHandler} which receives the {@link Event}s of one
+	 * type, including subclasses of that type
+	 * 
+	 * @param type
+	 * @param h
+	 */
+	public <E extends Event> void addHandler (Class<E> type,
+			EventHandler<? super E> h)
+	{
+		if (type == null || h == null) { throw new IllegalArgumentException(
+				"Type and handler must not be null"); }
+		
+		add(new Registration(type, h, h));
+	}
+	
+	/**
+	 * Adds an {@link EventHandler} which receives the {@link Event}s of one
+	 * type on a dedicated thread, so that it does not slow down the threads
+	 * which dispatch them. It is removed and its thread is stopped by
+	 * {@link EventDispatcher#removeHandler(EventHandler)} or
+	 * {@link EventDispatcher#close()}.
+	 * 
+	 * @param type
+	 * @param h
+	 * @param capacity the number of {@link Event}s which may be waiting for
+	 *            delivery to the handler
+	 * @return the wrapper which delivers the {@link Event}s
+	 */
+	public <E extends Event> AsynchronousEventHandler<E> addAsynchronousHandler (
+			Class<E> type, EventHandler<? super E> h, int capacity)
+	{
+		if (type == null) { throw new IllegalArgumentException(
+				"Type must not be null"); }
+		
+		AsynchronousEventHandler<E> async =
+				new AsynchronousEventHandler<E>(h, capacity);
+		
+		add(new Registration(type, async, h));
+		
+		return async;
+	}
+	
+	/**
+	 * Removes every registration of an {@link EventListener}
+	 * 
+	 * @param l
+	 */
+	public void removeListener (EventListener l)
+	{
+		remove(l);
+	}
+	
+	/**
+	 * Removes every registration of an {@link EventHandler}, waiting for any
+	 * {@link Event}s it has not yet been given asynchronously
+	 * 
+	 * @param h
+	 */
+	public void removeHandler (EventHandler<?> h)
+	{
+		for (Registration r : remove(h))
+		{
+			closeAsynchronous(r);
+		}
+	}
+	
+	/**
+	 * Removes every registration, waiting for the asynchronous handlers to be
+	 * given the {@link Event}s dispatched before this was called
+	 */
+	public void close ()
+	{
+		for (Registration r : registrations.getAndSet(new Registration[0]))
+		{
+			closeAsynchronous(r);
+		}
+	}
+	
+	/**
+	 * Dispatches a given {@link Event} to the {@link EventListener}s and the
+	 * {@link EventHandler}s registered for its type
 	 * 
 	 * @param evt The {@link Event} to dispatch
 	 */
 	public void dispatchEvent (Event evt)
 	{
-		setChanged();
-		notifyObservers(evt);
+		Registration[] current = registrations.get();
+		
+		for (int i = 0; i < current.length; i++ )
+		{
+			if (current[i].type.isInstance(evt))
+			{
+				current[i].handler.handleEvent(evt);
+			}
+		}
+	}
+	
+	/**
+	 * Dispatches a number of {@link Event}s in order. Every {@link Event} is
+	 * delivered to the same registrations, even if one is added or removed
+	 * part way through.
+	 * 
+	 * @param evts The {@link Event}s to dispatch
+	 */
+	public void dispatchEvents (Collection<? extends Event> evts)
+	{
+		Registration[] current = registrations.get();
+		
+		for (Event evt : evts)
+		{
+			for (int i = 0; i < current.length; i++ )
+			{
+				if (current[i].type.isInstance(evt))
+				{
+					current[i].handler.handleEvent(evt);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Checks whether anything is registered, so that callers can skip
+	 * creating {@link Event}s nobody would receive
+	 * 
+	 * @return
+	 */
+	public boolean hasListeners ()
+	{
+		return registrations.get().length > 0;
+	}
+	
+	/**
+	 * Gets the number of registrations
+	 * 
+	 * @return
+	 */
+	public int countListeners ()
+	{
+		return registrations.get().length;
+	}
+	
+	/**
+	 * Adds a registration by replacing the array with a copy one longer
+	 * 
+	 * @param r
+	 */
+	protected void add (Registration r)
+	{
+		while (true)
+		{
+			Registration[] current = registrations.get();
+			Registration[] next = Arrays.copyOf(current, current.length + 1);
+			next[current.length] = r;
+			
+			if (registrations.compareAndSet(current, next)) { return; }
+		}
+	}
+	
+	/**
+	 * Removes the registrations of an object by replacing the array with a
+	 * copy without them
+	 * 
+	 * @param registered
+	 * @return the registrations that were removed
+	 */
+	protected Registration[] remove (Object registered)
+	{
+		while (true)
+		{
+			Registration[] current = registrations.get();
+			Registration[] next = new Registration[current.length];
+			Registration[] removed = new Registration[current.length];
+			int kept = 0;
+			int dropped = 0;
+			
+			for (int i = 0; i < current.length; i++ )
+			{
+				if (current[i].registered == registered)
+				{
+					removed[dropped++ ] = current[i];
+				}
+				else
+				{
+					next[kept++ ] = current[i];
+				}
+			}
+			
+			if (dropped == 0) { return removed; }
+			
+			if (registrations.compareAndSet(current, Arrays.copyOf(next, kept)))
+			{
+				return Arrays.copyOf(removed, dropped);
+			}
+		}
+	}
+	
+	/**
+	 * Stops the delivery thread of a registration, if it has one
+	 * 
+	 * @param r
+	 */
+	protected void closeAsynchronous (Registration r)
+	{
+		if (!(r.handler instanceof AsynchronousEventHandler)) { return; }
+		
+		try
+		{
+			((AsynchronousEventHandler<?>) r.handler).close();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
 	}
 }
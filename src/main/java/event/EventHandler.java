@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package event;
+
+/**
+ * Receives one type of {@link Event} from an {@link EventDispatcher}. The
+ * dispatcher only delivers {@link Event}s of the type the handler was
+ * registered for, so the handler never has to check the type itself.
+ * 
+ * @author Mike Johnson
+ * 
+ * @param <E> the type of {@link Event} handled
+ */
+public interface EventHandler<E extends Event>
+{
+	/**
+	 * Handles an {@link Event} dispatched by an {@link EventDispatcher}
+	 * 
+	 * @param evt The {@link Event} being handled
+	 */
+	public void handleEvent (E evt);
+}
@@ -19,20 +19,19 @@
  */
 package event;
 
-import java.util.Observer;
-
 /**
- * This interface extends the {@link Observer} interface to facilitate easy
- * reception of {@link Event}s from {@link EventDispatcher}s
+ * This interface facilitates easy reception of every {@link Event} from
+ * {@link EventDispatcher}s. Use an {@link EventHandler} to receive only one
+ * type of {@link Event}.
  * 
  * @author Mike Johnson
  * 
  */
-public interface EventListener extends Observer
+public interface EventListener
 {
 	/**
 	 * Receives an {@link Event} from an {@link EventDispatcher}. The class
-	 * which implements this method must be added as an {@link Observer} of the
+	 * which implements this method must be added as a listener of the
 	 * {@link EventDispatcher}
 	 * 
 	 * @param evt The {@link Event} being received
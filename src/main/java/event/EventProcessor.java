@@ -57,4 +57,12 @@ public interface EventProcessor
 	 * @return
 	 */
 	public boolean checkEventType (Event evt);
+	
+	/**
+	 * Returns the class of {@link Event} this {@link EventProcessor} handles,
+	 * so that the waiting thread can read from the channel for that type
+	 * 
+	 * @return
+	 */
+	public Class<? extends Event> getEventClass ();
 }
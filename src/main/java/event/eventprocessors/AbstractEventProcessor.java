@@ -19,8 +19,10 @@
  */
 package event.eventprocessors;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
 
 import log.ApplicationLogger;
 
@@ -31,7 +33,12 @@ import event.EventProcessor;
  * This class is the abstract implementation of the {@link EventProcessor}
  * interface.
  * 
- * It provides the logic common for all child {@link EventProcessor}s.
+ * It provides the logic common for all child {@link EventProcessor}s. The
+ * {@link Event} of each robot is stored in a slot indexed by the robot's id,
+ * and a bit is set for each robot that has reported, so checking for a
+ * duplicate and counting the received {@link Event}s take constant time. The
+ * slots are already in id order, so nothing is sorted before the barrier
+ * action runs, and they are reused from one phase to the next.
  * 
  * @author Mike Johnson
  * 
@@ -44,9 +51,32 @@ public abstract class AbstractEventProcessor implements EventProcessor
 	protected int				numRobots		= 0;
 	
 	/**
-	 * The {@link ArrayList} of received {@link Event}s from the other robots
+	 * The number of {@link Event}s that end the wait, less than
+	 * {@link AbstractEventProcessor#numRobots} if the barrier action may run
+	 * before every robot has reported
 	 */
-	protected ArrayList<Event>	receivedEvts	= null;
+	protected int				quorum			= 0;
+	
+	/**
+	 * The most recent {@link Event} received from each robot in this phase,
+	 * indexed by id
+	 */
+	protected Event[]			slots			= null;
+	
+	/**
+	 * The ids of the robots which have reported in this phase
+	 */
+	protected BitSet			received		= null;
+	
+	/**
+	 * The number of bits set in {@link AbstractEventProcessor#received}
+	 */
+	protected int				count			= 0;
+	
+	/**
+	 * The received {@link Event}s from the other robots, in id order
+	 */
+	protected ReceivedEvents	receivedEvts	= null;
 	
 	/**
 	 * Shortcut reference to the logger so that we don't need to keep typing it
@@ -54,6 +84,73 @@ public abstract class AbstractEventProcessor implements EventProcessor
 	protected ApplicationLogger	logger			= ApplicationLogger
 														.getInstance();
 	
+	/**
+	 * A read only {@link List} view of the received {@link Event}s in id
+	 * order, which is handed to the state by the barrier action. It is reused
+	 * for every phase, so it must not be kept once the barrier action has
+	 * returned.
+	 */
+	protected class ReceivedEvents extends AbstractList<Event> implements
+			RandomAccess
+	{
+		/**
+		 * The received {@link Event}s packed together, used when some of the
+		 * robots have not reported
+		 */
+		protected Event[]	packed	= null;
+		
+		/**
+		 * True if {@link ReceivedEvents#packed} needs to be filled again
+		 */
+		protected boolean	stale	= true;
+		
+		protected ReceivedEvents ()
+		{
+			packed = new Event[numRobots];
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.AbstractList#get(int)
+		 */
+		@Override
+		public Event get (int index)
+		{
+			if (index < 0 || index >= count) { throw new IndexOutOfBoundsException(
+					"Index: " + index + ", Size: " + count); }
+			
+			// every slot is filled, so the index is the id
+			if (count == numRobots) { return slots[index]; }
+			
+			if (stale)
+			{
+				int i = 0;
+				
+				for (int id = received.nextSetBit(0); id >= 0; id =
+						received.nextSetBit(id + 1))
+				{
+					packed[i++ ] = slots[id];
+				}
+				
+				stale = false;
+			}
+			
+			return packed[index];
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.AbstractCollection#size()
+		 */
+		@Override
+		public int size ()
+		{
+			return count;
+		}
+	}
+	
 	/**
 	 * Super constructor for all of the implementing child classes.
 	 * 
@@ -64,8 +161,11 @@ public abstract class AbstractEventProcessor implements EventProcessor
 	public AbstractEventProcessor (int numRobots)
 	{
 		this.numRobots = numRobots;
+		this.quorum = numRobots;
 		
-		receivedEvts = new ArrayList<Event>(numRobots);
+		slots = new Event[numRobots];
+		received = new BitSet(numRobots);
+		receivedEvts = new ReceivedEvents();
 	}
 	
 	/*
@@ -112,27 +212,33 @@ public abstract class AbstractEventProcessor implements EventProcessor
 			
 			if (id < 0 || id >= numRobots) { return true; }
 			
-			// ignore duplicates
-			if (receivedEvts.contains(evt)) { return true; }
+			if (received.get(id))
+			{
+				// ignore duplicates, but a robot that fell behind may report
+				// twice, so keep the newest
+				if (!slots[id].equals(evt))
+				{
+					slots[id] = evt;
+					receivedEvts.stale = true;
+				}
+				
+				return true;
+			}
 			
-			// add the event to the List
-			receivedEvts.add(evt);
+			// fill the robot's slot
+			slots[id] = evt;
+			received.set(id);
+			count++ ;
+			receivedEvts.stale = true;
 			
-			logger.logDebug("STATE  %02d: received %02d Events", id,
-					receivedEvts.size());
+			logger.logDebug("STATE  %02d: received %02d Events", id, count);
 			
 			// check whether we need to trip the barrier
 			if (shouldRunAction())
 			{
-				Collections.sort(receivedEvts);
-				
 				logger.logDebug("STATE  %02d: Running barrier action", id);
 				
-				runBarrierAction();
-				
-				// create a new object so that this thread can no longer write
-				// to the old object
-				receivedEvts = new ArrayList<Event>(numRobots);
+				runOrderedBarrierAction();
 				
 				return false;
 			}
@@ -141,6 +247,43 @@ public abstract class AbstractEventProcessor implements EventProcessor
 		return true;
 	}
 	
+	/**
+	 * Ends the wait early because a deadline has passed, running the barrier
+	 * action with the {@link Event}s received so far. Keeps waiting if none
+	 * have been received.
+	 * 
+	 * @return true if the thread should continue waiting
+	 */
+	public boolean expire ()
+	{
+		if (count == 0) { return true; }
+		
+		logger.logDebug("STATE: Deadline passed with %02d Events", count);
+		
+		runOrderedBarrierAction();
+		
+		return false;
+	}
+	
+	/**
+	 * Runs the barrier action on the received {@link Event}s, which are
+	 * already in id order, and then empties the slots for the next phase
+	 */
+	protected void runOrderedBarrierAction ()
+	{
+		runBarrierAction();
+		
+		for (int id = received.nextSetBit(0); id >= 0; id =
+				received.nextSetBit(id + 1))
+		{
+			slots[id] = null;
+		}
+		
+		received.clear();
+		count = 0;
+		receivedEvts.stale = true;
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -161,11 +304,35 @@ public abstract class AbstractEventProcessor implements EventProcessor
 	}
 	
 	/**
-	 * Gets the {@link ArrayList} of received {@link Event}s
+	 * Gets the number of {@link Event}s that end the wait
+	 * 
+	 * @return
+	 */
+	public int getQuorum ()
+	{
+		return quorum;
+	}
+	
+	/**
+	 * Sets the number of {@link Event}s that end the wait, at most one for
+	 * each robot
+	 * 
+	 * @param quorum
+	 */
+	public void setQuorum (int quorum)
+	{
+		if (quorum < 1 || quorum > numRobots) { throw new IllegalArgumentException(
+				"Quorum must be between 1 and " + numRobots + ": " + quorum); }
+		
+		this.quorum = quorum;
+	}
+	
+	/**
+	 * Gets a view of the received {@link Event}s in id order
 	 * 
 	 * @return
 	 */
-	public ArrayList<Event> getReceivedEvents ()
+	public List<Event> getReceivedEvents ()
 	{
 		return receivedEvts;
 	}
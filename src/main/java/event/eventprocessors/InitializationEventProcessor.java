@@ -89,4 +89,15 @@ public class InitializationEventProcessor extends AbstractEventProcessor
 		return InitializationEventProcessor.class.getSimpleName();
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see event.EventProcessor#getEventClass()
+	 */
+	@Override
+	public Class<? extends Event> getEventClass ()
+	{
+		return InitializationEvent.class;
+	}
+	
 }
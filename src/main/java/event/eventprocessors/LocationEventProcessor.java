@@ -82,7 +82,7 @@ public class LocationEventProcessor extends AbstractEventProcessor
 	@Override
 	public boolean shouldRunAction ()
 	{
-		if (receivedEvts.size() == numRobots) { return true; }
+		if (receivedEvts.size() >= quorum) { return true; }
 		
 		return false;
 	}
@@ -97,4 +97,15 @@ public class LocationEventProcessor extends AbstractEventProcessor
 	{
 		return LocationEventProcessor.class.getSimpleName();
 	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see event.EventProcessor#getEventClass()
+	 */
+	@Override
+	public Class<? extends Event> getEventClass ()
+	{
+		return LocationEvent.class;
+	}
 }
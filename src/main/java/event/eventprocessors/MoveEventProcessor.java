@@ -17,6 +17,7 @@
 package event.eventprocessors;
 
 import event.Event;
+import event.events.MoveEvent;
 
 /**
  * @author Mike Johnson
@@ -71,4 +72,13 @@ public class MoveEventProcessor extends AbstractEventProcessor
 		return null;
 	}
 	
+	/* (non-Javadoc)
+	 * @see event.EventProcessor#getEventClass()
+	 */
+	@Override
+	public Class<? extends Event> getEventClass ()
+	{
+		return MoveEvent.class;
+	}
+	
 }
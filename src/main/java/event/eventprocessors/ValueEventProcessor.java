@@ -84,7 +84,7 @@ public class ValueEventProcessor extends AbstractEventProcessor
 	@Override
 	public boolean shouldRunAction ()
 	{
-		if (receivedEvts.size() == numRobots) { return true; }
+		if (receivedEvts.size() >= quorum) { return true; }
 		
 		return false;
 	}
@@ -100,4 +100,15 @@ public class ValueEventProcessor extends AbstractEventProcessor
 		return ValueEventProcessor.class.getSimpleName();
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see event.EventProcessor#getEventClass()
+	 */
+	@Override
+	public Class<? extends Event> getEventClass ()
+	{
+		return ValueEvent.class;
+	}
+	
 }
@@ -16,6 +16,8 @@
  */
 package event.events;
 
+import java.util.Arrays;
+
 import event.Event;
 
 /**
@@ -24,7 +26,12 @@ import event.Event;
  */
 public class ValueEvent extends Event
 {
-	protected double	value	= Double.NaN;
+	protected double	value		= Double.NaN;
+	
+	/**
+	 * The location the value was sampled at, null if it was not given
+	 */
+	protected int[]		location	= null;
 	
 	/**
 	 * @param id
@@ -36,6 +43,18 @@ public class ValueEvent extends Event
 		value = val;
 	}
 	
+	/**
+	 * @param id
+	 * @param val
+	 * @param loc the location the value was sampled at
+	 */
+	public ValueEvent (int id, double val, int... loc)
+	{
+		this(id, val);
+		
+		location = loc;
+	}
+	
 	/**
 	 * @return the value
 	 */
@@ -52,6 +71,14 @@ public class ValueEvent extends Event
 		this.value = value;
 	}
 	
+	/**
+	 * @return the location the value was sampled at, null if it was not given
+	 */
+	public int[] getLocation ()
+	{
+		return location;
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -65,6 +92,7 @@ public class ValueEvent extends Event
 		long temp;
 		temp = Double.doubleToLongBits(value);
 		result = prime * result + (int) (temp ^ (temp >>> 32));
+		result = prime * result + Arrays.hashCode(location);
 		return result;
 	}
 	
@@ -82,6 +110,7 @@ public class ValueEvent extends Event
 		ValueEvent other = (ValueEvent) obj;
 		if (Double.doubleToLongBits(value) != Double
 				.doubleToLongBits(other.value)) return false;
+		if (!Arrays.equals(location, other.location)) return false;
 		return true;
 	}
 	
@@ -93,7 +122,8 @@ public class ValueEvent extends Event
 	@Override
 	public String toString ()
 	{
-		return String.format("ValueEvent [value=%s]", value);
+		return String.format("ValueEvent [value=%s, location=%s]", value,
+				Arrays.toString(location));
 	}
 	
 }
@@ -16,16 +16,19 @@
  *******************************************************************************/
 package log;
 
-import java.util.Observable;
-
+import event.EventDispatcher;
 import event.log.LogEvent;
 
 
 /**
+ * Dispatches every log message as a {@link LogEvent}. Loggers such as
+ * {@link ConsoleLogger} are registered as handlers of {@link LogEvent}s, and no
+ * {@link LogEvent} is created while none are registered.
+ * 
  * @author Mike Johnson
  * 
  */
-public class ApplicationLogger extends Observable
+public class ApplicationLogger extends EventDispatcher
 {
 	private static ApplicationLogger	instance	= null;
 	
@@ -51,32 +54,48 @@ public class ApplicationLogger extends Observable
 	
 	public void logDebug (String msg)
 	{
-		if(debugOn)
+		if(debugOn && hasListeners())
 		{
 			LogEvent evt = new LogEvent(msg, LogLevel.DEBUG);
-			setChanged();
-			notifyObservers(evt);
+			dispatchEvent(evt);
 		}
 	}
 	
 	public void logDebug (String msg, Object... args)
 	{
-		logDebug(String.format(msg, args));
+		// the message is only formatted if it will be dispatched
+		if (isDebugOn())
+		{
+			logDebug(String.format(msg, args));
+		}
+	}
+	
+	/**
+	 * Returns true if debug messages are dispatched to any logger. Callers
+	 * check this before building an expensive debug message.
+	 * 
+	 * @return
+	 */
+	public boolean isDebugOn ()
+	{
+		return debugOn && hasListeners();
 	}
 	
 	public void logError (String msg)
 	{
-		if(errorOn)
+		if(errorOn && hasListeners())
 		{
 			LogEvent evt = new LogEvent(msg, LogLevel.ERROR);
-			setChanged();
-			notifyObservers(evt);
+			dispatchEvent(evt);
 		}
 	}
 	
 	public void logError (String msg, Object... args)
 	{
-		logError(String.format(msg, args));
+		if (errorOn && hasListeners())
+		{
+			logError(String.format(msg, args));
+		}
 	}
 	
 	public void logException (Exception error)
@@ -91,17 +110,19 @@ public class ApplicationLogger extends Observable
 	
 	public void log (String msg)
 	{
-		if(normalOn)
+		if(normalOn && hasListeners())
 		{
 			LogEvent evt = new LogEvent(msg, LogLevel.NORM);
-			setChanged();
-			notifyObservers(evt);
+			dispatchEvent(evt);
 		}
 	}
 	
 	public void log (String msg, Object... args)
 	{
-		log(String.format(msg, args));
+		if (normalOn && hasListeners())
+		{
+			log(String.format(msg, args));
+		}
 	}
 	
 	public void debugOn()
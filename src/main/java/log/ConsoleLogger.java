@@ -16,9 +16,7 @@
  *******************************************************************************/
 package log;
 
-import java.util.Observable;
-import java.util.Observer;
-
+import event.EventHandler;
 import event.log.LogEvent;
 
 /**
@@ -26,35 +24,30 @@ import event.log.LogEvent;
  * @author Mike Johnson
  * 
  */
-public class ConsoleLogger implements Observer
+public class ConsoleLogger implements EventHandler<LogEvent>
 {
 	
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see java.util.Observer#update(java.util.Observable, java.lang.Object)
+	 * @see event.EventHandler#handleEvent(event.Event)
 	 */
 	@Override
-	public void update (Observable o, Object arg)
+	public void handleEvent (LogEvent evt)
 	{
-		if (arg instanceof LogEvent)
+		switch (evt.getLogLevel())
 		{
-			LogEvent evt = (LogEvent) arg;
-			
-			switch (evt.getLogLevel())
-			{
-				case DEBUG:
-					System.out.println("DEBUG: " + evt.getMessage());
-					break;
-				case ERROR:
-					System.err.println(evt.getMessage());
-					break;
-				case NORM:
-					System.out.println(evt.getMessage());
-					break;
-				default:
-					break;
-			}
+			case DEBUG:
+				System.out.println("DEBUG: " + evt.getMessage());
+				break;
+			case ERROR:
+				System.err.println(evt.getMessage());
+				break;
+			case NORM:
+				System.out.println(evt.getMessage());
+				break;
+			default:
+				break;
 		}
 	}
 	
@@ -21,16 +21,15 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.util.Observable;
-import java.util.Observer;
 
+import event.EventHandler;
 import event.log.LogEvent;
 
 /**
  * @author Mike Johnson
  *
  */
-public class FileLogger implements Observer
+public class FileLogger implements EventHandler<LogEvent>
 {
 	protected File			f	= null;
 	
@@ -61,32 +60,27 @@ public class FileLogger implements Observer
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see java.util.Observer#update(java.util.Observable, java.lang.Object)
+	 * @see event.EventHandler#handleEvent(event.Event)
 	 */
 	@Override
-	public void update (Observable o, Object arg)
+	public void handleEvent (LogEvent evt)
 	{
-		if (arg instanceof LogEvent)
+		switch (evt.getLogLevel())
 		{
-			LogEvent evt = (LogEvent) arg;
-			
-			switch (evt.getLogLevel())
-			{
-				case DEBUG:
-					ps.println("DEBUG: " + evt.getMessage());
-					break;
-				case ERROR:
-					ps.println("ERROR: " + evt.getMessage());
-					break;
-				case NORM:
-					ps.println(evt.getMessage());
-					break;
-				default:
-					break;
-			}
-			
-			ps.flush();
+			case DEBUG:
+				ps.println("DEBUG: " + evt.getMessage());
+				break;
+			case ERROR:
+				ps.println("ERROR: " + evt.getMessage());
+				break;
+			case NORM:
+				ps.println(evt.getMessage());
+				break;
+			default:
+				break;
 		}
+		
+		ps.flush();
 	}
 	
 	public void close ()
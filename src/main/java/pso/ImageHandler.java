@@ -19,7 +19,6 @@
  */
 package pso;
 
-import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
@@ -93,10 +92,12 @@ public class ImageHandler
 		{
 			for (int j = 0; j < m.getColumnDimension(); j++)
 			{
-				// averages values in case not greyscale
-				Color col = new Color(img.getRGB(i, j));
+				// averages values in case not greyscale, unpacking the
+				// components directly rather than creating a Color per pixel
+				int rgb = img.getRGB(i, j);
 				
-				double val = (col.getRed() + col.getBlue() + col.getGreen()) / 3.0;
+				double val =
+						( ( (rgb >> 16) & 0xFF) + (rgb & 0xFF) + ( (rgb >> 8) & 0xFF)) / 3.0;
 				
 				m.setEntry(i, j, val);
 			}
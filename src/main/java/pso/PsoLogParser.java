@@ -14,8 +14,8 @@
  * You should have received a copy of the GNU General Public License along with
  * this program. If not, see <http://www.gnu.org/licenses/>
  *******************************************************************************/
-/**
- * 
+/**
+ * 
  */
 package pso;
 
@@ -40,8 +40,9 @@ import event.EventDispatcher;
  * This class checks the extension of the filename passed to it. If the log file
  * is a compressed file (.pso.gz) then it will decompress the data as it parses.
  * 
- * This class extends Observable so that any observers can be registered to
- * receive updates on the object's parsing progress.
+ * This class extends {@link EventDispatcher} so that handlers of
+ * {@link ProgressEvent}s can be registered to receive updates on the object's
+ * parsing progress.
  * 
  * @author mike
  * 
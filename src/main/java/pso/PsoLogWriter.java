@@ -29,15 +29,14 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Observable;
 
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.compress.utils.IOUtils;
 
-import event.Event;
-import event.EventListener;
+import event.EventHandler;
 import event.log.PsoLogEvent;
 
+import pso.config.SynchronizationMode;
 import pso.interfaces.StateInterface;
 
 import log.ApplicationLogger;
@@ -53,10 +52,14 @@ import log.ApplicationLogger;
  * If the explicit constructor is used, the object can be configured to compress
  * the log file using Gzip. In this case, the extension will be (.pso.gz)
  * 
+ * The writer is registered with the state's dispatcher as the handler of
+ * {@link PsoLogEvent}s. It reads the state when an event is handled, so it
+ * must not be registered for asynchronous delivery.
+ * 
  * @author Mike Johnson
  * 
  */
-public class PsoLogWriter implements EventListener
+public class PsoLogWriter implements EventHandler<PsoLogEvent>
 {
 	private String					logFileName		= null;
 	private File					logFile			= null;
@@ -579,6 +582,51 @@ public class PsoLogWriter implements EventListener
 		}
 	}
 	
+	/**
+	 * Writes the data structure of a single evaluation to the file. It has the
+	 * same layout as an iteration, but only contains the particle which
+	 * sampled. Used in the asynchronous mode, where each evaluation is an
+	 * iteration.
+	 * 
+	 * @param id the particle which sampled
+	 */
+	public void evaluationToBytes (int id)
+	{
+		try
+		{
+			// write the iteration-start-of-bytes to file
+			out.writeByte(0x2B);
+			out.writeByte(0xAD);
+			out.writeByte(0xBA);
+			out.writeByte(0xBE);
+			
+			counterWrapper.writeByte(0x2B);
+			counterWrapper.writeByte(0xAD);
+			counterWrapper.writeByte(0xBA);
+			counterWrapper.writeByte(0xBE);
+			
+			// only one particle
+			out.writeInt(1);
+			counterWrapper.writeInt(1);
+			
+			// write global best location
+			arrayToBytes(state.getGlobalBestLocation());
+			
+			// write global best value
+			double nf = state.getGlobalBestValue();
+			
+			out.writeDouble(nf);
+			counterWrapper.writeDouble(nf);
+			
+			particleToBytes(id, state.getBestLocation(id),
+					state.getSampleLocation(id), state.getBestValue(id));
+		}
+		catch (IOException e)
+		{
+			ApplicationLogger.getInstance().logException(e);
+		}
+	}
+	
 	/**
 	 * This is a private class that simply records the number of bytes that are
 	 * written to a certain output stream
@@ -605,27 +653,18 @@ public class PsoLogWriter implements EventListener
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see java.util.Observer#update(java.util.Observable, java.lang.Object)
+	 * @see event.EventHandler#handleEvent(event.Event)
 	 */
 	@Override
-	public void update (Observable o, Object arg)
+	public synchronized void handleEvent (PsoLogEvent evt)
 	{
-		if (arg instanceof PsoLogEvent)
+		if (state.getConfiguration().getSynchronizationMode() == SynchronizationMode.ASYNCHRONOUS)
 		{
-			receiveEvent((PsoLogEvent) arg);
+			evaluationToBytes(evt.getID());
+		}
+		else
+		{
+			iterationToBytes();
 		}
-	}
-	
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see event.EventListener#receiveEvent(event.Event)
-	 */
-	@Override
-	public void receiveEvent (Event evt)
-	{
-		// PsoLogEvent pevt = (PsoLogEvent) evt;
-		
-		iterationToBytes();
 	}
 }
@@ -1,8 +1,12 @@
 package pso;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Vector;
+import java.util.concurrent.atomic.AtomicLong;
 
 import log.ApplicationLogger;
 
@@ -12,12 +16,20 @@ import event.events.InitializationEvent;
 import event.events.LocationEvent;
 import event.events.ValueEvent;
 import event.log.PsoLogEvent;
+import pso.config.NeighborhoodTopology;
 import pso.config.PsoConfiguration;
+import pso.config.StragglerPolicy;
+import pso.config.SynchronizationMode;
+import pso.implementation.optimization.NeighborhoodBests;
+import pso.implementation.optimization.NeighborhoodIndex;
+import pso.implementation.optimization.OptimumReduction;
 import pso.implementation.optimization.SampleOptimizer;
 import pso.implementation.random.RandomStreamer;
 import pso.implementation.random.SeedSet;
+import pso.implementation.search.MappedSearchDomain;
 import pso.implementation.search.SearchDomain;
 import pso.implementation.search.SearchDomainParams;
+import pso.implementation.search.SparseSearchDomain;
 import pso.implementation.search.UnitIntervalMapper;
 import pso.implementation.search.UnitIntervalMapper.Mapping;
 import pso.interfaces.StateInterface;
@@ -26,7 +38,7 @@ import pso.interfaces.search.SearchDomainInterface;
 public class StateRepository implements StateInterface
 {
 	/**
-	 * The singleton
+	 * The shared instance
 	 */
 	private static StateRepository	instance	= null;
 	
@@ -36,13 +48,17 @@ public class StateRepository implements StateInterface
 	private ApplicationLogger		log			=
 			ApplicationLogger.getInstance();
 	
-	private StateRepository ()
+	/**
+	 * Creates an independent simulation state. Each simulation run in the same
+	 * JVM needs its own instance, which is passed to the
+	 * {@link task.runner.TaskRunner} that executes it.
+	 */
+	public StateRepository ()
 	{
-		// Exists only to defeat instantiation.
 	}
 	
 	/**
-	 * Gets the singleton instance
+	 * Gets the shared instance used when only one simulation is run at a time
 	 * 
 	 * @return
 	 */
@@ -58,7 +74,7 @@ public class StateRepository implements StateInterface
 	
 	protected boolean					isInitialized		= false;
 	
-	protected boolean					shouldExit			= false;
+	protected volatile boolean			shouldExit			= false;
 	
 	protected PsoConfiguration			configuration		= null;
 	
@@ -68,14 +84,40 @@ public class StateRepository implements StateInterface
 	
 	protected RandomStreamer			streamer			= null;
 	
-	protected Vector<Sample>			lastSampleBuffer	= null;
-	protected Vector<Sample>			sampleBuffer		= null;
+	/**
+	 * The samples, initial states and personal bests of every particle
+	 */
+	protected SwarmStore				swarm				= null;
 	
-	protected Vector<InitialState>		initial				= null;
+	/**
+	 * Reused to pass the samples observed during a phase ended by a quorum
+	 * barrier to the search domain
+	 */
+	protected double[]					observedValues		= null;
+	protected int[]						observedLocations	= null;
 	
 	protected SampleOptimizer			globalOptimizer		= null;
 	
-	protected Vector<SampleOptimizer>	localOptimizers		= null;
+	protected List<SampleOptimizer>		localOptimizers		= null;
+	
+	/**
+	 * Reused to pass the newest sample of each particle to its personal best
+	 * after a phase ended by a quorum barrier, indexed by id
+	 */
+	protected double[]					latestValues		= null;
+	protected int[]						latestLocations		= null;
+	protected boolean[]					hasLatest			= null;
+	
+	/**
+	 * Reused to record which personal bests changed, indexed by id
+	 */
+	protected boolean[]					improved			= null;
+	
+	/**
+	 * The best member of each particle's neighborhood, null for the global
+	 * best topology, where the global optimizer is used instead
+	 */
+	protected NeighborhoodBests			neighborhoods		= null;
 	
 	protected EventDispatcher			dispatcher			= null;
 	
@@ -83,6 +125,24 @@ public class StateRepository implements StateInterface
 	
 	protected long						globalBestIteration	= -1;
 	
+	/**
+	 * Whether the particles update the state one sample at a time, see
+	 * {@link SynchronizationMode#ASYNCHRONOUS}
+	 */
+	protected boolean					asynchronous		= false;
+	
+	/**
+	 * The number of samples evaluated so far in the asynchronous mode, where
+	 * each one counts as an iteration
+	 */
+	protected AtomicLong				evaluationNumber	= null;
+	
+	/**
+	 * The evaluation the global best value was found in, in the asynchronous
+	 * mode
+	 */
+	protected AtomicLong				bestEvaluation		= null;
+	
 	public void initialize (int simulationNumber, PsoConfiguration conf)
 	{
 		configuration = conf;
@@ -103,16 +163,58 @@ public class StateRepository implements StateInterface
 					configuration.getFitnessState().getAxisSize());
 		}
 		
-		domain = new SearchDomain(sdParams);
+		// release the backing file of the previous simulation's domain
+		if (domain instanceof Closeable)
+		{
+			try
+			{
+				((Closeable) domain).close();
+			}
+			catch (IOException e)
+			{
+				log.logException(e);
+			}
+		}
 		
-		mapper = new UnitIntervalMapper(
+		switch (configuration.getSearchDomainStorage())
+		{
+			case MAPPED:
+				if (configuration.getSearchDomainFile() == null)
+				{
+					domain = new MappedSearchDomain(sdParams);
+				}
+				else
+				{
+					domain =
+							new MappedSearchDomain(sdParams,
+									Paths.get(configuration
+											.getSearchDomainFile()));
+				}
+				break;
+			case SPARSE:
+				domain = new SparseSearchDomain(sdParams);
+				break;
+			default:
+				domain = new SearchDomain(sdParams);
+				break;
+		}
+		
+		mapper = UnitIntervalMapper.create(
 				configuration.getFitnessState().getAxisSize(), numDimensions);
 		
 		// initialize sample buffers
 		
-		lastSampleBuffer = new Vector<Sample>(numParticles);
-		sampleBuffer = new Vector<Sample>(numParticles);
-		initial = new Vector<InitialState>(numParticles);
+		swarm = new SwarmStore(numParticles, numDimensions);
+		
+		observedValues = new double[numParticles];
+		observedLocations = new int[numParticles * numDimensions];
+		
+		latestValues = new double[numParticles];
+		latestLocations = new int[numParticles * numDimensions];
+		hasLatest = new boolean[numParticles];
+		
+		asynchronous =
+				configuration.getSynchronizationMode() == SynchronizationMode.ASYNCHRONOUS;
 		
 		// initialize RNG streamers
 		
@@ -125,7 +227,8 @@ public class StateRepository implements StateInterface
 		globalOptimizer =
 				new SampleOptimizer(-1, configuration.isMaximize(), this);
 		
-		localOptimizers = new Vector<SampleOptimizer>(numParticles);
+		localOptimizers = new ArrayList<SampleOptimizer>(numParticles);
+		improved = new boolean[numParticles];
 		
 		for (int i = 0; i < numParticles; i++ )
 		{
@@ -133,7 +236,24 @@ public class StateRepository implements StateInterface
 					new SampleOptimizer(i, configuration.isMaximize(), this));
 		}
 		
+		// every optimizer starts out with the same value
+		swarm.clearBests(globalOptimizer.getOptimumValue());
+		
+		// the neighbors of each particle are found once, here
+		NeighborhoodTopology nt = configuration.getNeighborhoodTopology();
+		
+		neighborhoods = null;
+		
+		if (nt != NeighborhoodTopology.GLOBAL_BEST)
+		{
+			neighborhoods =
+					new NeighborhoodBests(NeighborhoodIndex.create(nt,
+							numParticles), localOptimizers);
+		}
+		
 		iterationNumber = 0;
+		evaluationNumber = new AtomicLong(0);
+		bestEvaluation = new AtomicLong(-1);
 		
 		isInitialized = true;
 		shouldExit = false;
@@ -148,11 +268,15 @@ public class StateRepository implements StateInterface
 	
 	public long getIterationNumber ()
 	{
+		if (asynchronous) { return evaluationNumber.get(); }
+		
 		return iterationNumber;
 	}
 	
 	public long getGlobalBestIteration ()
 	{
+		if (asynchronous) { return bestEvaluation.get(); }
+		
 		return globalBestIteration;
 	}
 	
@@ -184,7 +308,7 @@ public class StateRepository implements StateInterface
 	{
 		checkInitialization();
 		
-		return localOptimizers.get(id).getOptimumValue();
+		return swarm.getBestValue(id);
 	}
 	
 	/*
@@ -234,14 +358,14 @@ public class StateRepository implements StateInterface
 	{
 		checkInitialization();
 		
-		return sampleBuffer.get(id).getSampleLocation();
+		return swarm.copyLocation(id);
 	}
 	
 	public int[] getLastSampleLocation (int id)
 	{
 		checkInitialization();
 		
-		return lastSampleBuffer.get(id).getSampleLocation();
+		return swarm.copyLastLocation(id);
 	}
 	
 	/*
@@ -254,7 +378,7 @@ public class StateRepository implements StateInterface
 	{
 		checkInitialization();
 		
-		return initial.get(id).getState();
+		return swarm.copyInitialState(id);
 	}
 	
 	/*
@@ -270,6 +394,19 @@ public class StateRepository implements StateInterface
 		return streamer.generateVectorPrimary();
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.interfaces.StateInterface#generateRandomVectorPrimary(int[])
+	 */
+	@Override
+	public int[] generateRandomVectorPrimary (int[] vec)
+	{
+		checkInitialization();
+		
+		return streamer.generateVectorPrimary(vec);
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -365,11 +502,26 @@ public class StateRepository implements StateInterface
 				desired = globalOptimizer.getOptimumLocation();
 				break;
 			case LOCAL_BEST:
-				desired = localOptimizers.get(id).getOptimumLocation();
+				desired = getNeighborhoodBestLocation(id);
 				break;
 			case ORIGINAL_PSO:
-				// TODO:
+				// the expected point of attraction of the original PSO, with
+				// equal weight on the personal and neighborhood bests
+				int[] personal = localOptimizers.get(id).getOptimumLocation();
+				int[] neighborhood = getNeighborhoodBestLocation(id);
+				
+				if (personal == null || neighborhood == null)
+				{
+					desired = personal == null ? neighborhood : personal;
+					break;
+				}
 				
+				desired = new int[personal.length];
+				
+				for (int i = 0; i < desired.length; i++ )
+				{
+					desired[i] = (personal[i] + neighborhood[i]) / 2;
+				}
 				break;
 			default:
 				break;
@@ -378,6 +530,21 @@ public class StateRepository implements StateInterface
 		return desired;
 	}
 	
+	/**
+	 * Gets the location of the best personal best in a particle's
+	 * neighborhood, which is the global optimum for the global best topology
+	 * 
+	 * @param id
+	 * @return
+	 */
+	protected int[] getNeighborhoodBestLocation (int id)
+	{
+		if (neighborhoods == null) { return globalOptimizer
+				.getOptimumLocation(); }
+		
+		return neighborhoods.getBestSample(id).getSampleLocation();
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -388,7 +555,20 @@ public class StateRepository implements StateInterface
 	{
 		checkInitialization();
 		
-		return localOptimizers.get(id).getOptimumLocation();
+		return swarm.copyBestLocation(id);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.interfaces.StateInterface#copyBestLocation(int, int[], int)
+	 */
+	@Override
+	public boolean copyBestLocation (int id, int[] dest, int offset)
+	{
+		checkInitialization();
+		
+		return swarm.copyBestLocation(id, dest, offset);
 	}
 	
 	/*
@@ -414,14 +594,21 @@ public class StateRepository implements StateInterface
 	{
 		checkInitialization();
 		
-		if (evts.size() != configuration
+		if (evts.isEmpty() || evts.size() > configuration
 				.getNumberOfParticles()) { throw new IllegalArgumentException(
 						"Number of received LocationEvents: " + evts.size()
-								+ " must match number of robots: "
+								+ " must be between 1 and the number of robots: "
 								+ configuration.getNumberOfParticles()); }
 		
+		// a quorum barrier ended the phase before every robot reported
+		if (evts.size() < configuration.getNumberOfParticles())
+		{
+			updatePartialSampleLocations(evts, psoLevelUpdate);
+			return;
+		}
+		
 		// clear old samples
-		sampleBuffer.clear();
+		swarm.clearLocations();
 		
 		// set each sample to an unknown value and known location
 		for (Event evt : evts)
@@ -458,13 +645,9 @@ public class StateRepository implements StateInterface
 				shouldExit = true;
 			}
 			
-			Sample s = new Sample(Double.NaN, levt.getLocation());
-			
-			if (!sampleBuffer.contains(s))
-			{
-				sampleBuffer.add(s);
-			}
-			else
+			// only the robots which have already been given a location this
+			// iteration are checked
+			if (swarm.isOccupied(levt.getID(), location, false))
 			{
 				double selectionValue = generateRandomDuplicateRemovalValue();
 				
@@ -479,10 +662,10 @@ public class StateRepository implements StateInterface
 					continue;
 				}
 				
-				s = new Sample(Double.NaN, m.indicies);
-				
-				sampleBuffer.add(s);
+				location = m.indicies;
 			}
+			
+			swarm.setLocation(levt.getID(), location);
 		}
 		
 		if (psoLevelUpdate && !shouldExit)
@@ -504,14 +687,11 @@ public class StateRepository implements StateInterface
 		checkInitialization();
 		
 		// clear old samples (if there even were any
-		sampleBuffer.clear();
-		initial.clear();
+		swarm.clearLocations();
 		
 		ApplicationLogger.getInstance()
 				.logDebug("STATE: Updating initial values");
 		
-		// this assumes these events have been sorted according to id ascending
-		// order
 		for (Event evt : evts)
 		{
 			InitializationEvent ievt = (InitializationEvent) evt;
@@ -520,18 +700,9 @@ public class StateRepository implements StateInterface
 					"STATE: Getting initial state for event %02d",
 					ievt.getID());
 			
-			int[] initialState = ievt.getInitial();
-			
 			// now we need to update the dynamics with the initial state and the
 			// sample buffer so that the position is move to and sampled
-			initial.add(new InitialState(initialState));
-			
-			// even# * 2 -> even#, odd# * 2 -> even#, therefore int division
-			// should always work no matter how many dimensions fitness function
-			// has
-			sampleBuffer
-					.add(new Sample(Double.NaN, Arrays.copyOfRange(initialState,
-							initialState.length / 2, initialState.length)));
+			swarm.setInitialState(ievt.getID(), ievt.getInitial());
 		}
 	}
 	
@@ -545,38 +716,37 @@ public class StateRepository implements StateInterface
 	{
 		checkInitialization();
 		
-		if (evts.size() != configuration
+		if (evts.isEmpty() || evts.size() > configuration
 				.getNumberOfParticles()) { throw new IllegalArgumentException(
-						"Number of received ValueEvents must match number of robots. Received: "
+						"Number of received ValueEvents must be between 1 and the number of robots. Received: "
 								+ evts.size() + " events.  There are "
 								+ configuration.getNumberOfParticles()
 								+ " robots."); }
 		
+		// a quorum barrier ended the phase before every robot reported
+		if (evts.size() < configuration.getNumberOfParticles())
+		{
+			updatePartialSampleValues(evts, psoUpdate);
+			return;
+		}
+		
 		// copy the values corresponding to each location
 		for (Event evt : evts)
 		{
 			ValueEvent vevt = (ValueEvent) evt;
 			
-			sampleBuffer.get(evt.getID()).setSampleValue(vevt.getValue());
+			swarm.setValue(evt.getID(), vevt.getValue());
 		}
 		
 		log.logDebug("Finished updating sample buffer");
 		
-		// update the search domain
-		for (Sample s : sampleBuffer)
-		{
-			log.logDebug("Observing location: %s",
-					Arrays.toString(s.getSampleLocation()));
-			domain.observe(s.getSampleValue(), s.getSampleLocation());
-			mapper.removeLocation(s.getSampleLocation());
-		}
+		// update the search domain, the store already packs the samples the
+		// way the search domain takes them
+		domain.observeAll(swarm.getValues(), swarm.getLocations());
+		mapper.removeLocations(swarm.getLocations());
 		
 		// copy samples into last buffer
-		lastSampleBuffer.clear();
-		for (Sample s : sampleBuffer)
-		{
-			lastSampleBuffer.add(s);
-		}
+		swarm.retainAll();
 		
 		log.logDebug("Finished updating search domain");
 		
@@ -595,16 +765,347 @@ public class StateRepository implements StateInterface
 		}
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * pso.interfaces.StateInterface#updateInitialValue(event.events.
+	 * InitializationEvent)
+	 */
+	@Override
+	public void updateInitialValue (InitializationEvent evt)
+	{
+		checkInitialization();
+		
+		synchronized (swarm)
+		{
+			swarm.setInitialState(evt.getID(), evt.getInitial());
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * pso.interfaces.StateInterface#updateSampleValue(event.events.ValueEvent)
+	 */
+	@Override
+	public void updateSampleValue (ValueEvent evt)
+	{
+		checkInitialization();
+		
+		int id = evt.getID();
+		
+		Sample s = null;
+		
+		synchronized (swarm)
+		{
+			swarm.setValue(id, evt.getValue());
+			swarm.retain(id);
+			
+			s = new Sample(evt.getValue(), swarm.copyLocation(id));
+		}
+		
+		domain.observe(s.getSampleValue(), s.getSampleLocation());
+		mapper.removeLocation(s.getSampleLocation());
+		
+		long evaluation = evaluationNumber.incrementAndGet();
+		
+		// only this particle updates its own optimum, but the global optimum
+		// is raced for by all of them
+		if (localOptimizers.get(id).offerOptimum(s))
+		{
+			synchronized (swarm)
+			{
+				swarm.setBest(id, s.getSampleValue(), s.getSampleLocation());
+			}
+			
+			if (neighborhoods != null)
+			{
+				neighborhoods.offer(id);
+			}
+		}
+		
+		if (globalOptimizer.offerOptimum(s))
+		{
+			bestEvaluation.accumulateAndGet(evaluation, Math::max);
+		}
+		
+		updateExitConditions();
+		
+		dispatcher.dispatchEvent(new PsoLogEvent(id));
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * pso.interfaces.StateInterface#updateSampleLocation(event.events.LocationEvent
+	 * )
+	 */
+	@Override
+	public void updateSampleLocation (LocationEvent evt)
+	{
+		checkInitialization();
+		
+		int id = evt.getID();
+		int[] location = evt.getLocation();
+		
+		// the search domain has been sampled entirely
+		for (int i = 0; i < location.length; i++ )
+		{
+			if (location[i] < 0)
+			{
+				ApplicationLogger.getInstance().log(
+						"Sampled All Locations by iteration "
+								+ getIterationNumber() + " exiting.");
+				
+				shouldExit = true;
+				return;
+			}
+		}
+		
+		// the check for another particle about to sample the same location
+		// and the write of this particle's location must happen together
+		synchronized (swarm)
+		{
+			// samples which already have a value have been observed
+			if (swarm.isOccupied(id, location, true))
+			{
+				double selectionValue = generateRandomDuplicateRemovalValue();
+				
+				Mapping m = selectAlternateLocation(selectionValue);
+				
+				if (m == null)
+				{
+					shouldExit = true;
+					return;
+				}
+				
+				location = m.indicies;
+			}
+			
+			swarm.setLocation(id, location);
+		}
+	}
+	
+	/**
+	 * Updates the sample buffer with the locations of the robots that reported
+	 * before a quorum barrier ended the phase. The robots that did not report
+	 * hold their position, and sample their current location again.
+	 * 
+	 * @param evts
+	 * @param psoLevelUpdate
+	 */
+	protected void updatePartialSampleLocations (List<Event> evts,
+			boolean psoLevelUpdate)
+	{
+		// every robot samples again, including the ones holding their
+		// position
+		swarm.clearValues();
+		
+		for (Event evt : evts)
+		{
+			LocationEvent levt = (LocationEvent) evt;
+			
+			int[] location = levt.getLocation();
+			
+			// check whether we have sampled the entire search domain
+			if (location.length == 0 || location[0] < 0)
+			{
+				ApplicationLogger.getInstance().log(
+						"Sampled All Locations by iteration " + iterationNumber
+								+ " exiting.");
+				
+				shouldExit = true;
+				continue;
+			}
+			
+			if (swarm.isOccupied(levt.getID(), location, false))
+			{
+				double selectionValue = generateRandomDuplicateRemovalValue();
+				
+				Mapping m = selectAlternateLocation(selectionValue);
+				
+				if (m == null)
+				{
+					shouldExit = true;
+					continue;
+				}
+				
+				location = m.indicies;
+			}
+			
+			swarm.setLocation(levt.getID(), location);
+		}
+		
+		if (psoLevelUpdate && !shouldExit)
+		{
+			iterationNumber++ ;
+		}
+	}
+	
+	/**
+	 * Updates the search domain and optima with the values of the robots that
+	 * reported before a quorum barrier ended the phase. The robots that did
+	 * not report are handled according to the {@link StragglerPolicy}. A
+	 * value sampled at a location other than the robot's current sample
+	 * location was sent late, during an earlier phase.
+	 * 
+	 * @param evts
+	 * @param psoUpdate
+	 */
+	protected void updatePartialSampleValues (List<Event> evts,
+			boolean psoUpdate)
+	{
+		int numParticles = configuration.getNumberOfParticles();
+		int numDimensions = configuration.getNumberOfDimensions();
+		
+		StragglerPolicy policy = configuration.getStragglerPolicy();
+		
+		boolean[] reported = new boolean[numParticles];
+		
+		// the number of samples observed during this phase
+		int count = 0;
+		
+		// the newest sample of each particle considered for the optima
+		Arrays.fill(hasLatest, false);
+		
+		for (Event evt : evts)
+		{
+			ValueEvent vevt = (ValueEvent) evt;
+			
+			int id = evt.getID();
+			int[] location = vevt.getLocation();
+			
+			if (location == null || swarm.isAt(id, location))
+			{
+				swarm.setValue(id, vevt.getValue());
+				
+				reported[id] = true;
+				location = swarm.getLocations();
+			}
+			else if (policy != StragglerPolicy.FOLD_NEXT)
+			{
+				continue;
+			}
+			
+			// the row of a reported sample starts at the robot's offset in
+			// the store, a late sample's location is the whole array
+			int from = reported[id] ? swarm.getOffset(id) : 0;
+			
+			observedValues[count] = vevt.getValue();
+			System.arraycopy(location, from, observedLocations, count
+					* numDimensions, numDimensions);
+			count++ ;
+			
+			stageLatest(id, vevt.getValue(), location, from);
+		}
+		
+		for (int i = 0; i < numParticles; i++ )
+		{
+			if (reported[i])
+			{
+				swarm.retain(i);
+			}
+			else if (policy == StragglerPolicy.REUSE_LAST && swarm.hasLast(i))
+			{
+				// repeat the previous sample, which has already been observed
+				swarm.restore(i);
+				
+				stageLatest(i, swarm.getValue(i), swarm.getLocations(),
+						swarm.getOffset(i));
+			}
+		}
+		
+		double[] values = observedValues;
+		int[] locations = observedLocations;
+		
+		if (count < numParticles)
+		{
+			values = Arrays.copyOf(observedValues, count);
+			locations = Arrays.copyOf(observedLocations, count * numDimensions);
+		}
+		
+		domain.observeAll(values, locations);
+		mapper.removeLocations(locations);
+		
+		updateOptima(latestValues, latestLocations, hasLatest);
+		
+		updatePerformance();
+		
+		updateExitConditions();
+		
+		if (psoUpdate)
+		{
+			dispatcher.dispatchEvent(new PsoLogEvent(0));
+		}
+	}
+	
+	/**
+	 * Records the newest sample of a robot for its personal best
+	 * 
+	 * @param id
+	 * @param value
+	 * @param locations the array holding the sample's location
+	 * @param offset the index of the first entry of the location
+	 */
+	protected void stageLatest (int id, double value, int[] locations,
+			int offset)
+	{
+		int numDimensions = swarm.getNumberOfDimensions();
+		
+		latestValues[id] = value;
+		System.arraycopy(locations, offset, latestLocations, id
+				* numDimensions, numDimensions);
+		hasLatest[id] = true;
+	}
+	
 	protected void updateOptima ()
 	{
-		for (SampleOptimizer so : localOptimizers)
+		// every particle has a new sample, packed in id order by the store
+		updateOptima(swarm.getValues(), swarm.getLocations(), null);
+	}
+	
+	/**
+	 * Updates the personal best of each particle with only its own sample,
+	 * then offers the best of the personal bests which changed to the global
+	 * optimum and to the neighborhoods of the particles which changed. The
+	 * personal bests are updated and reduced in parallel for large swarms, see
+	 * {@link OptimumReduction}.
+	 * 
+	 * @param values the value of the newest sample of each particle, indexed
+	 *            by id
+	 * @param locations the location of the newest sample of each particle,
+	 *            packed in id order
+	 * @param present whether each particle has a new sample, null if every
+	 *            particle does
+	 */
+	protected void updateOptima (double[] values, int[] locations,
+			boolean[] present)
+	{
+		int best =
+				OptimumReduction.reduce(localOptimizers, values, locations,
+						present, improved);
+		
+		for (int i = 0; i < improved.length; i++ )
 		{
-			so.updateOptimum(sampleBuffer);
+			if (!improved[i]) continue;
+			
+			Sample pb = localOptimizers.get(i).getOptimumSample();
+			
+			swarm.setBest(i, pb.getSampleValue(), pb.getSampleLocation());
 		}
 		
-		boolean updated = globalOptimizer.updateOptimum(sampleBuffer);
+		// only the neighborhoods of the particles which improved change
+		if (neighborhoods != null)
+		{
+			neighborhoods.update(improved);
+		}
 		
-		if (updated)
+		if (best >= 0
+				&& globalOptimizer.updateOptimum(localOptimizers.get(best)
+						.getOptimumSample()))
 		{
 			globalBestIteration = iterationNumber;
 		}
@@ -619,6 +1120,13 @@ public class StateRepository implements StateInterface
 	
 	protected void updateExitConditions ()
 	{
+		long limit = configuration.getIterationLimit();
+		
+		if (limit > 0 && getIterationNumber() >= limit)
+		{
+			shouldExit = true;
+		}
+		
 		log.logDebug("Finished Updating Exit Conditions");
 	}
 	
@@ -0,0 +1,426 @@
+/**
+ * Copyright (C) 2016 Michael Johnson
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ */
+package pso;
+
+import java.util.Arrays;
+
+/**
+ * Holds the state of every particle in the swarm in flat arrays indexed by
+ * particle, rather than in one object per particle.
+ * 
+ * The location of each particle takes one row of
+ * {@link SwarmStore#getNumberOfDimensions()} entries, and the rows are packed
+ * one after another in id order, which is the layout taken by
+ * {@link pso.interfaces.search.SearchDomainInterface#observeAll(double[], int[])}
+ * . The whole swarm's samples can therefore be observed without copying, and
+ * the rows are overwritten in place each iteration instead of being
+ * allocated.
+ * 
+ * For each particle the store holds the sample it is about to take, or has
+ * just taken, the last sample it took, its initial state and its personal
+ * best. The value of a sample which has not been taken yet is NaN.
+ * 
+ * The store is not synchronized. Callers which write it from several
+ * threads, such as the asynchronous mode, lock on the store.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class SwarmStore
+{
+	protected int		numParticles	= 0;
+	
+	protected int		numDimensions	= 0;
+	
+	/**
+	 * The location of the current sample of each particle
+	 */
+	protected int[]		locations		= null;
+	
+	/**
+	 * The value of the current sample of each particle, NaN until it is taken
+	 */
+	protected double[]	values			= null;
+	
+	/**
+	 * Whether each particle has been given a current sample location
+	 */
+	protected boolean[]	located			= null;
+	
+	protected int[]		lastLocations	= null;
+	
+	protected double[]	lastValues		= null;
+	
+	protected boolean[]	hasLast			= null;
+	
+	/**
+	 * The initial state of each particle, its last location followed by its
+	 * current location
+	 */
+	protected int[]		initialStates	= null;
+	
+	protected int[]		bestLocations	= null;
+	
+	protected double[]	bestValues		= null;
+	
+	protected boolean[]	hasBest			= null;
+	
+	public SwarmStore (int numParticles, int numDimensions)
+	{
+		if (numParticles < 1 || numDimensions < 1) { throw new IllegalArgumentException(
+				"Swarm must have at least one particle and one dimension"); }
+		
+		this.numParticles = numParticles;
+		this.numDimensions = numDimensions;
+		
+		locations = new int[numParticles * numDimensions];
+		values = new double[numParticles];
+		located = new boolean[numParticles];
+		
+		lastLocations = new int[numParticles * numDimensions];
+		lastValues = new double[numParticles];
+		hasLast = new boolean[numParticles];
+		
+		initialStates = new int[numParticles * numDimensions * 2];
+		
+		bestLocations = new int[numParticles * numDimensions];
+		bestValues = new double[numParticles];
+		hasBest = new boolean[numParticles];
+		
+		Arrays.fill(values, Double.NaN);
+		Arrays.fill(lastValues, Double.NaN);
+		Arrays.fill(bestValues, Double.NaN);
+	}
+	
+	public int getNumberOfParticles ()
+	{
+		return numParticles;
+	}
+	
+	public int getNumberOfDimensions ()
+	{
+		return numDimensions;
+	}
+	
+	/**
+	 * Gets the locations of the current samples, packed in id order. This is
+	 * the store's own array, so it must not be modified.
+	 * 
+	 * @return
+	 */
+	public int[] getLocations ()
+	{
+		return locations;
+	}
+	
+	/**
+	 * Gets the values of the current samples, indexed by id. This is the
+	 * store's own array, so it must not be modified.
+	 * 
+	 * @return
+	 */
+	public double[] getValues ()
+	{
+		return values;
+	}
+	
+	/**
+	 * Gets the locations of the last samples, packed in id order. This is the
+	 * store's own array, so it must not be modified.
+	 * 
+	 * @return
+	 */
+	public int[] getLastLocations ()
+	{
+		return lastLocations;
+	}
+	
+	/**
+	 * Gets the index of the first entry of a particle's row
+	 * 
+	 * @param id
+	 * @return
+	 */
+	public int getOffset (int id)
+	{
+		return id * numDimensions;
+	}
+	
+	/**
+	 * Forgets the current sample of every particle, so that none of them has
+	 * a location until it is given a new one
+	 */
+	public void clearLocations ()
+	{
+		Arrays.fill(located, false);
+		
+		clearValues();
+	}
+	
+	/**
+	 * Marks the current sample of every particle as not taken yet, without
+	 * moving any of them
+	 */
+	public void clearValues ()
+	{
+		Arrays.fill(values, Double.NaN);
+	}
+	
+	/**
+	 * Gives a particle a new sample location, which has not been sampled yet
+	 * 
+	 * @param id
+	 * @param location
+	 */
+	public void setLocation (int id, int[] location)
+	{
+		System.arraycopy(location, 0, locations, getOffset(id), numDimensions);
+		
+		values[id] = Double.NaN;
+		located[id] = true;
+	}
+	
+	public void setValue (int id, double value)
+	{
+		values[id] = value;
+	}
+	
+	public double getValue (int id)
+	{
+		return values[id];
+	}
+	
+	/**
+	 * Copies the current sample location of a particle
+	 * 
+	 * @param id
+	 * @return
+	 */
+	public int[] copyLocation (int id)
+	{
+		int offset = getOffset(id);
+		
+		return Arrays.copyOfRange(locations, offset, offset + numDimensions);
+	}
+	
+	/**
+	 * Checks whether the current sample location of a particle is a given
+	 * location
+	 * 
+	 * @param id
+	 * @param location
+	 * @return
+	 */
+	public boolean isAt (int id, int[] location)
+	{
+		int offset = getOffset(id);
+		
+		for (int i = 0; i < numDimensions; i++ )
+		{
+			if (locations[offset + i] != location[i]) { return false; }
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Checks whether a particle other than the given one has a location to
+	 * sample at a given location
+	 * 
+	 * @param id
+	 * @param location
+	 * @param pendingOnly whether only the samples which have not been taken
+	 *            yet are considered
+	 * @return
+	 */
+	public boolean isOccupied (int id, int[] location, boolean pendingOnly)
+	{
+		for (int i = 0; i < numParticles; i++ )
+		{
+			if (i == id || !located[i]) continue;
+			if (pendingOnly && !Double.isNaN(values[i])) continue;
+			
+			if (isAt(i, location)) { return true; }
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Makes the current sample of every particle its last sample
+	 */
+	public void retainAll ()
+	{
+		System.arraycopy(locations, 0, lastLocations, 0, locations.length);
+		System.arraycopy(values, 0, lastValues, 0, values.length);
+		System.arraycopy(located, 0, hasLast, 0, located.length);
+	}
+	
+	/**
+	 * Makes the current sample of a particle its last sample
+	 * 
+	 * @param id
+	 */
+	public void retain (int id)
+	{
+		int offset = getOffset(id);
+		
+		System.arraycopy(locations, offset, lastLocations, offset,
+				numDimensions);
+		
+		lastValues[id] = values[id];
+		hasLast[id] = located[id];
+	}
+	
+	/**
+	 * Makes the last sample of a particle its current sample again, along
+	 * with its value
+	 * 
+	 * @param id
+	 */
+	public void restore (int id)
+	{
+		int offset = getOffset(id);
+		
+		System.arraycopy(lastLocations, offset, locations, offset,
+				numDimensions);
+		
+		values[id] = lastValues[id];
+		located[id] = hasLast[id];
+	}
+	
+	public boolean hasLast (int id)
+	{
+		return hasLast[id];
+	}
+	
+	public double getLastValue (int id)
+	{
+		return lastValues[id];
+	}
+	
+	/**
+	 * Copies the last sample location of a particle
+	 * 
+	 * @param id
+	 * @return null if the particle has not taken a sample yet
+	 */
+	public int[] copyLastLocation (int id)
+	{
+		if (!hasLast[id]) { return null; }
+		
+		int offset = getOffset(id);
+		
+		return Arrays.copyOfRange(lastLocations, offset, offset
+				+ numDimensions);
+	}
+	
+	/**
+	 * Sets the initial state of a particle, and makes the current location in
+	 * the initial state its first sample location
+	 * 
+	 * @param id
+	 * @param state the last location followed by the current location
+	 */
+	public void setInitialState (int id, int[] state)
+	{
+		if (state.length != numDimensions * 2) { throw new IllegalArgumentException(
+				"Initial state must have " + numDimensions * 2
+						+ " entries, not " + state.length); }
+		
+		System.arraycopy(state, 0, initialStates, getOffset(id) * 2,
+				state.length);
+		System.arraycopy(state, numDimensions, locations, getOffset(id),
+				numDimensions);
+		
+		values[id] = Double.NaN;
+		located[id] = true;
+	}
+	
+	/**
+	 * Copies the initial state of a particle
+	 * 
+	 * @param id
+	 * @return
+	 */
+	public int[] copyInitialState (int id)
+	{
+		int offset = getOffset(id) * 2;
+		
+		return Arrays.copyOfRange(initialStates, offset, offset
+				+ numDimensions * 2);
+	}
+	
+	/**
+	 * Forgets the personal best of every particle
+	 * 
+	 * @param value the value reported until a particle has a personal best
+	 */
+	public void clearBests (double value)
+	{
+		Arrays.fill(hasBest, false);
+		Arrays.fill(bestValues, value);
+	}
+	
+	public void setBest (int id, double value, int[] location)
+	{
+		System.arraycopy(location, 0, bestLocations, getOffset(id),
+				numDimensions);
+		
+		bestValues[id] = value;
+		hasBest[id] = true;
+	}
+	
+	public double getBestValue (int id)
+	{
+		return bestValues[id];
+	}
+	
+	/**
+	 * Copies the personal best location of a particle
+	 * 
+	 * @param id
+	 * @return null if the particle does not have a personal best yet
+	 */
+	public int[] copyBestLocation (int id)
+	{
+		if (!hasBest[id]) { return null; }
+		
+		int offset = getOffset(id);
+		
+		return Arrays.copyOfRange(bestLocations, offset, offset
+				+ numDimensions);
+	}
+	
+	/**
+	 * Copies the personal best location of a particle into an existing array
+	 * 
+	 * @param id
+	 * @param dest
+	 * @param offset the index in the array the location is copied to
+	 * @return false if the particle does not have a personal best yet
+	 */
+	public boolean copyBestLocation (int id, int[] dest, int offset)
+	{
+		if (!hasBest[id]) { return false; }
+		
+		System.arraycopy(bestLocations, getOffset(id), dest, offset,
+				numDimensions);
+		
+		return true;
+	}
+}
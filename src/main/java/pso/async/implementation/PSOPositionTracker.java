@@ -23,7 +23,6 @@ import log.ApplicationLogger;
 import org.apache.commons.math3.linear.RealMatrix;
 
 import pso.MisconfiguredBlockException;
-import pso.StateRepository;
 import pso.async.implementation.controllers.LinearController;
 import pso.async.implementation.error.AdditiveErrorCalculator;
 import pso.async.implementation.noise.DistributionNoiseModulator;
@@ -35,6 +34,7 @@ import pso.async.interfaces.ErrorCalculator;
 import pso.async.interfaces.FeedbackControlSystem;
 import pso.async.interfaces.NoiseModulator;
 import pso.async.interfaces.Plant;
+import pso.interfaces.StateInterface;
 
 /**
  * @author Mike Johnson
@@ -72,9 +72,23 @@ public class PSOPositionTracker implements FeedbackControlSystem
 	protected Plant				plant			= null;
 	
 	/**
-	 * 
+	 * The signal passed from the error calculator through the controller and
+	 * the noise to the plant, reused between timesteps
 	 */
-	public PSOPositionTracker (RealMatrix K, LinearPlantParameters params)
+	protected int[]				signal			= null;
+	
+	/**
+	 * The number of entries in the output vector of the plant
+	 */
+	protected int				outputSize		= 0;
+	
+	/**
+	 * @param K
+	 * @param params
+	 * @param s the state of the simulation, used to generate the process noise
+	 */
+	public PSOPositionTracker (RealMatrix K, LinearPlantParameters params,
+			StateInterface s)
 	{
 		// initialize the plant and controller
 		try
@@ -96,7 +110,7 @@ public class PSOPositionTracker implements FeedbackControlSystem
 		if (!Double.isNaN(params.getNoiseGain()))
 		{
 			processNoise = new DistributionNoiseModulator(params.getNoiseGain(),
-					StateRepository.getInstance());
+					s);
 		}
 		else
 		{
@@ -105,6 +119,9 @@ public class PSOPositionTracker implements FeedbackControlSystem
 		
 		// initialize the measured output vector
 		measured = new int[params.getInputVectorSize()];
+		
+		signal = new int[params.getInputVectorSize()];
+		outputSize = params.getOutputVectorSize();
 	}
 	
 	/*
@@ -144,7 +161,12 @@ public class PSOPositionTracker implements FeedbackControlSystem
 	
 	protected void updateFeedbackSignal (int[] output)
 	{
-		measured = Arrays.copyOf(output, output.length);
+		if (measured.length != output.length)
+		{
+			measured = new int[output.length];
+		}
+		
+		System.arraycopy(output, 0, measured, 0, output.length);
 		// System.out.println("Meas: " + measured.toString());
 	}
 	
@@ -156,42 +178,66 @@ public class PSOPositionTracker implements FeedbackControlSystem
 	@Override
 	public int[] transfer (int... input) throws MisconfiguredBlockException
 	{
-		ApplicationLogger.getInstance()
-				.logDebug("Desired Location: " + Arrays.toString(input));
-		ApplicationLogger.getInstance()
-				.logDebug("Measured Location: " + Arrays.toString(measured));
+		int[] output = new int[outputSize];
+		
+		transferInto(input, output);
+		
+		return output;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.async.interfaces.FeedbackControlSystem#transferInto(int[],
+	 * int[])
+	 */
+	@Override
+	public void transferInto (int[] input, int[] output)
+			throws MisconfiguredBlockException
+	{
+		ApplicationLogger log = ApplicationLogger.getInstance();
+		
+		// the debug messages are only built when they are dispatched
+		boolean debug = log.isDebugOn();
+		
+		if (debug)
+		{
+			log.logDebug("Desired Location: " + Arrays.toString(input));
+			log.logDebug("Measured Location: " + Arrays.toString(measured));
+		}
 		
 		if (input.length != measured.length) { throw new MisconfiguredBlockException(
 				"Input vector must have length equal to measured vector length."); }
 		
 		// calculate the error
-		int[] error = errCalc.transfer(input, measured);
+		errCalc.transferInto(input, measured, signal);
 		
-		ApplicationLogger.getInstance()
-				.logDebug("ERR: " + Arrays.toString(error));
+		if (debug)
+		{
+			log.logDebug("ERR: " + Arrays.toString(signal));
+		}
 		
 		// perform the control correction on the signal
-		error = control.transfer(error);
+		control.transferInto(signal, signal);
 		
-		ApplicationLogger.getInstance()
-				.logDebug("CONTROL: " + Arrays.toString(error));
+		if (debug)
+		{
+			log.logDebug("CONTROL: " + Arrays.toString(signal));
+		}
 		
 		// modulate in some noise
-		error = processNoise.transfer(error);
+		processNoise.transferInto(signal, signal);
 		
-		ApplicationLogger.getInstance()
-				.logDebug("ACT: " + Arrays.toString(error));
+		if (debug)
+		{
+			log.logDebug("ACT: " + Arrays.toString(signal));
+		}
 		
 		// calculate the output
-		int[] output = plant.transfer(error);
-		
-		// ApplicationLogger.getInstance().logDebug("Out: " +
-		// output.toString());
+		plant.transferInto(signal, output);
 		
 		// update our feedback vector
 		updateFeedbackSignal(output);
-		
-		return output;
 	}
 	
 }
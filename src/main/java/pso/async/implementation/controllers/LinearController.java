@@ -38,6 +38,17 @@ public class LinearController implements Controller
 	
 	protected RealMatrix	inputMatrix	= null;
 	
+	/**
+	 * The entries of the feedback gain, used by
+	 * {@link LinearController#transferInto(int[], int[])}
+	 */
+	protected double[][]	gain		= null;
+	
+	/**
+	 * The product of the gain and the error, reused between calls
+	 */
+	protected double[]		product		= null;
+	
 	/**
 	 * Constructs a {@link LinearController} for the given Feedback gain and
 	 * uses the given {@link StateSpace} to validate the gain is correctly
@@ -57,6 +68,9 @@ public class LinearController implements Controller
 		K = gain;
 		
 		inputMatrix = new Array2DRowRealMatrix(K.getColumnDimension(), 1);
+		
+		this.gain = K.getData();
+		product = new double[K.getRowDimension()];
 	}
 	
 	/*
@@ -84,4 +98,37 @@ public class LinearController implements Controller
 		
 		return error;
 	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.async.interfaces.Controller#transferInto(int[], int[])
+	 */
+	@Override
+	public void transferInto (int[] error, int[] output)
+			throws MisconfiguredBlockException
+	{
+		if (gain[0].length != error.length) { throw new MisconfiguredBlockException(
+				"Input vector must be K Column dimension in size."); }
+		
+		// the products are summed in column order, as RealMatrix#multiply
+		// does, so the result is the same as transfer(int...)
+		for (int i = 0; i < product.length; i++ )
+		{
+			double[] row = gain[i];
+			double sum = 0;
+			
+			for (int j = 0; j < row.length; j++ )
+			{
+				sum += row[j] * error[j];
+			}
+			
+			product[i] = sum;
+		}
+		
+		for (int i = 0; i < error.length; i++ )
+		{
+			output[i] = (int) Math.floor(product[i]);
+		}
+	}
 }
@@ -16,6 +16,8 @@
  */
 package pso.async.implementation.duplicate;
 
+import java.util.Arrays;
+
 import log.ApplicationLogger;
 import pso.DuplicateDetectionMode;
 import pso.async.interfaces.DuplicateInterface;
@@ -92,6 +94,26 @@ public class DuplicateDetector implements DuplicateInterface
 		}
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * pso.async.interfaces.DuplicateInterface#areAlreadyObserved(int[],
+	 * boolean[])
+	 */
+	@Override
+	public void areAlreadyObserved (int[] locations, boolean[] observed)
+	{
+		if (mode == DuplicateDetectionMode.NONE)
+		{
+			Arrays.fill(observed, false);
+		}
+		else
+		{
+			state.getSearchDomain().isObservedAll(locations, observed);
+		}
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * 
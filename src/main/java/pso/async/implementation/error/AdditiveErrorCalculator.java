@@ -63,8 +63,35 @@ public class AdditiveErrorCalculator implements ErrorCalculator
 		
 		int[] output = new int[desired.length];
 		
+		transferInto(desired, measured, output);
+		
+		return output;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.async.interfaces.ErrorCalculator#transferInto(int[], int[],
+	 * int[])
+	 */
+	@Override
+	public void transferInto (int[] desired, int[] measured, int[] output)
+			throws MisconfiguredBlockException
+	{
+		if (desired.length != measured.length
+				|| output.length != desired.length) { throw new MisconfiguredBlockException(
+				"Desired, Measured and Output vectors must have the same length."); }
+		
+		int half = (int) Math.floor(output.length / 2.0);
+		
+		// there is no error for the last position
+		for (int i = 0; i < half; i++ )
+		{
+			output[i] = 0;
+		}
+		
 		// calculate error for the current position, not the last one
-		for (int i = (int) Math.floor(output.length / 2.0); i < output.length; i++ )
+		for (int i = half; i < output.length; i++ )
 		{
 			if (isNegativeFeedback)
 			{
@@ -75,7 +102,5 @@ public class AdditiveErrorCalculator implements ErrorCalculator
 				output[i] = desired[i] + measured[i];
 			}
 		}
-		
-		return output;
 	}
 }
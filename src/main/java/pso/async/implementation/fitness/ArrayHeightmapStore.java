@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.async.implementation.fitness;
+
+/**
+ * A {@link HeightmapStore} over heights which are already on the heap, indexed
+ * [x][y]
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class ArrayHeightmapStore implements HeightmapStore
+{
+	protected double[][]	heights	= null;
+	
+	public ArrayHeightmapStore (double[][] heights)
+	{
+		this.heights = heights;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.async.implementation.fitness.HeightmapStore#getWidth()
+	 */
+	@Override
+	public int getWidth ()
+	{
+		return heights.length;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.async.implementation.fitness.HeightmapStore#getHeight()
+	 */
+	@Override
+	public int getHeight ()
+	{
+		return heights.length == 0 ? 0 : heights[0].length;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.async.implementation.fitness.HeightmapStore#getValue(int, int)
+	 */
+	@Override
+	public double getValue (int x, int y)
+	{
+		if (x > (heights.length - 1) || x < 0) { return Double.NaN; }
+		
+		if (y > (heights[x].length - 1) || y < 0) { return Double.NaN; }
+		
+		return heights[x][y];
+	}
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.async.implementation.fitness;
+
+/**
+ * Selects which entry {@link CachingFitnessCalculator} discards when it is
+ * full
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public enum CacheEvictionPolicy
+{
+	/**
+	 * The least recently used entry
+	 */
+	LRU("LRU"),
+	
+	/**
+	 * The first entry found by a clock hand which has not been used since the
+	 * hand last passed it, an approximation of LRU with cheaper hits
+	 */
+	CLOCK("Clock");
+	
+	private String	name	= null;
+	
+	private CacheEvictionPolicy (String name)
+	{
+		this.name = name;
+	}
+	
+	public String getName ()
+	{
+		return name;
+	}
+	
+	public static CacheEvictionPolicy getCacheEvictionPolicy (String name)
+	{
+		if (name.equalsIgnoreCase(CLOCK.getName()))
+		{
+			return CLOCK;
+		}
+		else
+		{
+			return LRU;
+		}
+	}
+}
@@ -0,0 +1,560 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.async.implementation.fitness;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import pso.async.interfaces.FitnessInterface;
+import pso.implementation.search.SearchDomainParams;
+import pso.interfaces.search.SearchDomainInterface;
+
+/**
+ * A bounded cache in front of another {@link FitnessInterface}. The search
+ * domain is a discrete lattice, so when duplicate detection is off the
+ * particles sample the same locations over and over; for expensive fitness
+ * functions it is much cheaper to remember the fitness of each location.
+ * 
+ * Entries are keyed by the linear index of the location (calculated in the
+ * same way as the search domain) and stored in primitive arrays: an open
+ * addressing hash table maps each key to an entry slot, and each slot holds
+ * the key, the value and the bookkeeping for the {@link CacheEvictionPolicy}.
+ * 
+ * If a {@link SearchDomainInterface} is provided, a location which is not in
+ * the cache but has already been observed is read from the search domain
+ * instead of being calculated.
+ * 
+ * The cache is guarded by a single lock which is never held while the fitness
+ * is being calculated, so a cache shared by all of the particles does not
+ * serialize their fitness calculations.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class CachingFitnessCalculator implements FitnessInterface
+{
+	public static final int			MAX_CAPACITY	= 1 << 28;
+	
+	protected static final long		EMPTY			= -1L;
+	
+	/**
+	 * Calculates the fitness on a miss
+	 */
+	protected FitnessInterface		fitness		= null;
+	
+	/**
+	 * Read on a miss before calculating the fitness, may be null
+	 */
+	protected SearchDomainInterface	domain		= null;
+	
+	protected CacheEvictionPolicy	policy		= null;
+	
+	/**
+	 * The maximum number of entries
+	 */
+	protected int					capacity	= -1;
+	
+	protected int					dimension	= -1;
+	
+	protected int[]					axisSizes	= null;
+	
+	protected long[]				strides		= null;
+	
+	// hash table from key to entry slot
+	protected long[]				tableKeys	= null;
+	protected int[]					tableSlots	= null;
+	protected int					mask		= 0;
+	
+	// entries
+	protected long[]				keys		= null;
+	protected double[]				values		= null;
+	protected int					size		= 0;
+	
+	// LRU list, most recently used at the head
+	protected int[]					previous	= null;
+	protected int[]					next		= null;
+	protected int					head		= -1;
+	protected int					tail		= -1;
+	
+	// CLOCK reference bits and hand
+	protected boolean[]				referenced	= null;
+	protected int					hand		= 0;
+	
+	protected AtomicLong			hits		= new AtomicLong();
+	
+	protected AtomicLong			misses		= new AtomicLong();
+	
+	protected AtomicLong			evictions	= new AtomicLong();
+	
+	/**
+	 * @param f calculates the fitness on a miss
+	 * @param params the parameters of the search domain
+	 * @param capacity the maximum number of entries
+	 * @param p the eviction policy
+	 */
+	public CachingFitnessCalculator (FitnessInterface f,
+			SearchDomainParams params, int capacity, CacheEvictionPolicy p)
+	{
+		this(f, params, capacity, p, null);
+	}
+	
+	/**
+	 * @param f calculates the fitness on a miss
+	 * @param params the parameters of the search domain
+	 * @param capacity the maximum number of entries
+	 * @param p the eviction policy
+	 * @param sd read on a miss before calculating the fitness, may be null
+	 */
+	public CachingFitnessCalculator (FitnessInterface f,
+			SearchDomainParams params, int capacity, CacheEvictionPolicy p,
+			SearchDomainInterface sd)
+	{
+		if (capacity < 1 || capacity > MAX_CAPACITY) { throw new IllegalArgumentException(
+				"Cache capacity must be between 1 and " + MAX_CAPACITY + ": "
+						+ capacity); }
+		
+		fitness = f;
+		domain = sd;
+		policy = p;
+		this.capacity = capacity;
+		
+		dimension = params.getSearchDomainDimension();
+		axisSizes = new int[dimension];
+		strides = new long[dimension];
+		
+		long stride = 1;
+		
+		for (int i = 0; i < dimension; i++ )
+		{
+			axisSizes[i] = params.getAxisSize(i);
+			strides[i] = stride;
+			stride *= axisSizes[i];
+		}
+		
+		// keep the load factor of the table at or below one half
+		int tableSize = Integer.highestOneBit(capacity) << 2;
+		
+		tableKeys = new long[tableSize];
+		tableSlots = new int[tableSize];
+		mask = tableSize - 1;
+		Arrays.fill(tableKeys, EMPTY);
+		
+		keys = new long[capacity];
+		values = new double[capacity];
+		
+		if (policy == CacheEvictionPolicy.CLOCK)
+		{
+			referenced = new boolean[capacity];
+		}
+		else
+		{
+			previous = new int[capacity];
+			next = new int[capacity];
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.async.interfaces.FitnessInterface#calculateFitness(int[])
+	 */
+	@Override
+	public double calculateFitness (int... location)
+	{
+		long key = calculateKey(location, 0);
+		
+		// locations outside the search domain are not cached
+		if (key < 0) { return fitness.calculateFitness(location); }
+		
+		synchronized (this)
+		{
+			int slot = find(key);
+			
+			if (slot >= 0)
+			{
+				touch(slot);
+				hits.incrementAndGet();
+				return values[slot];
+			}
+		}
+		
+		double value;
+		
+		if (domain != null && domain.isObserved(location))
+		{
+			value = domain.getValue(location);
+			hits.incrementAndGet();
+		}
+		else
+		{
+			value = fitness.calculateFitness(location);
+			misses.incrementAndGet();
+		}
+		
+		synchronized (this)
+		{
+			put(key, value);
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Looks up every location under the lock at once, then calculates the
+	 * fitness of the misses as a single batch. The search domain is not read
+	 * for batches, since the misses are calculated together anyway.
+	 * 
+	 * @see pso.async.interfaces.FitnessInterface#calculateFitnessAll(int[],
+	 *      double[])
+	 */
+	@Override
+	public void calculateFitnessAll (int[] locations, double[] out)
+	{
+		int count = out.length;
+		
+		long[] batchKeys = new long[count];
+		int[] missing = new int[count];
+		int missCount = 0;
+		
+		for (int i = 0; i < count; i++ )
+		{
+			batchKeys[i] = calculateKey(locations, i * dimension);
+		}
+		
+		synchronized (this)
+		{
+			for (int i = 0; i < count; i++ )
+			{
+				int slot = batchKeys[i] < 0 ? -1 : find(batchKeys[i]);
+				
+				if (slot >= 0)
+				{
+					touch(slot);
+					out[i] = values[slot];
+				}
+				else
+				{
+					missing[missCount++ ] = i;
+				}
+			}
+		}
+		
+		hits.addAndGet(count - missCount);
+		
+		if (missCount == 0) { return; }
+		
+		// calculate the misses together
+		int[] missLocations = new int[missCount * dimension];
+		double[] missValues = new double[missCount];
+		
+		for (int m = 0; m < missCount; m++ )
+		{
+			System.arraycopy(locations, missing[m] * dimension, missLocations,
+					m * dimension, dimension);
+		}
+		
+		fitness.calculateFitnessAll(missLocations, missValues);
+		misses.addAndGet(missCount);
+		
+		synchronized (this)
+		{
+			for (int m = 0; m < missCount; m++ )
+			{
+				int i = missing[m];
+				
+				out[i] = missValues[m];
+				
+				if (batchKeys[i] >= 0)
+				{
+					put(batchKeys[i], missValues[m]);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @return how many fitness values were found in the cache or the search
+	 *         domain
+	 */
+	public long getHits ()
+	{
+		return hits.get();
+	}
+	
+	/**
+	 * @return how many fitness values had to be calculated
+	 */
+	public long getMisses ()
+	{
+		return misses.get();
+	}
+	
+	/**
+	 * @return how many entries were discarded to make room for new ones
+	 */
+	public long getEvictions ()
+	{
+		return evictions.get();
+	}
+	
+	/**
+	 * @return the number of entries in the cache
+	 */
+	public synchronized int getSize ()
+	{
+		return size;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString ()
+	{
+		return String.format(
+				"CachingFitnessCalculator [policy=%s, capacity=%d, size=%d, "
+						+ "hits=%d, misses=%d, evictions=%d]",
+				policy.getName(), capacity, getSize(), getHits(), getMisses(),
+				getEvictions());
+	}
+	
+	// //////////// Helper methods
+	
+	/**
+	 * @param locations the packed indicies
+	 * @param offset where the indicies of the location start
+	 * @return the linear index of the location, -1 if it is not in the search
+	 *         domain
+	 */
+	protected long calculateKey (int[] locations, int offset)
+	{
+		if (locations.length - offset < dimension) { return -1; }
+		
+		long key = 0;
+		
+		for (int i = 0; i < dimension; i++ )
+		{
+			int index = locations[offset + i];
+			
+			if (index < 0 || index >= axisSizes[i]) { return -1; }
+			
+			key += index * strides[i];
+		}
+		
+		return key;
+	}
+	
+	/**
+	 * @param key
+	 * @return the entry slot holding the key, -1 if it is not in the cache
+	 */
+	protected int find (long key)
+	{
+		int t = hash(key);
+		
+		while (tableKeys[t] != EMPTY)
+		{
+			if (tableKeys[t] == key) { return tableSlots[t]; }
+			
+			t = (t + 1) & mask;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Adds an entry, or updates it if another thread added it first
+	 * 
+	 * @param key
+	 * @param value
+	 */
+	protected void put (long key, double value)
+	{
+		int slot = find(key);
+		
+		if (slot >= 0)
+		{
+			values[slot] = value;
+			touch(slot);
+			return;
+		}
+		
+		if (size < capacity)
+		{
+			slot = size++ ;
+		}
+		else
+		{
+			slot = evict();
+			removeFromTable(keys[slot]);
+			evictions.incrementAndGet();
+		}
+		
+		keys[slot] = key;
+		values[slot] = value;
+		
+		int t = hash(key);
+		
+		while (tableKeys[t] != EMPTY)
+		{
+			t = (t + 1) & mask;
+		}
+		
+		tableKeys[t] = key;
+		tableSlots[t] = slot;
+		
+		if (policy == CacheEvictionPolicy.CLOCK)
+		{
+			referenced[slot] = false;
+		}
+		else
+		{
+			pushFront(slot);
+		}
+	}
+	
+	/**
+	 * Records that an entry has been used
+	 * 
+	 * @param slot
+	 */
+	protected void touch (int slot)
+	{
+		if (policy == CacheEvictionPolicy.CLOCK)
+		{
+			referenced[slot] = true;
+		}
+		else if (slot != head)
+		{
+			unlink(slot);
+			pushFront(slot);
+		}
+	}
+	
+	/**
+	 * Chooses an entry to discard
+	 * 
+	 * @return the slot of the entry, which has been unlinked
+	 */
+	protected int evict ()
+	{
+		if (policy == CacheEvictionPolicy.CLOCK)
+		{
+			// give every entry used since the last pass a second chance
+			while (referenced[hand])
+			{
+				referenced[hand] = false;
+				hand = (hand + 1) % capacity;
+			}
+			
+			int slot = hand;
+			hand = (hand + 1) % capacity;
+			
+			return slot;
+		}
+		else
+		{
+			int slot = tail;
+			unlink(slot);
+			
+			return slot;
+		}
+	}
+	
+	protected void pushFront (int slot)
+	{
+		previous[slot] = -1;
+		next[slot] = head;
+		
+		if (head >= 0)
+		{
+			previous[head] = slot;
+		}
+		
+		head = slot;
+		
+		if (tail < 0)
+		{
+			tail = slot;
+		}
+	}
+	
+	protected void unlink (int slot)
+	{
+		if (previous[slot] >= 0)
+		{
+			next[previous[slot]] = next[slot];
+		}
+		else
+		{
+			head = next[slot];
+		}
+		
+		if (next[slot] >= 0)
+		{
+			previous[next[slot]] = previous[slot];
+		}
+		else
+		{
+			tail = previous[slot];
+		}
+	}
+	
+	/**
+	 * Removes a key from the hash table, moving back any keys which probed
+	 * past it
+	 * 
+	 * @param key
+	 */
+	protected void removeFromTable (long key)
+	{
+		int t = hash(key);
+		
+		while (tableKeys[t] != key)
+		{
+			t = (t + 1) & mask;
+		}
+		
+		tableKeys[t] = EMPTY;
+		
+		int n = (t + 1) & mask;
+		
+		while (tableKeys[n] != EMPTY)
+		{
+			int home = hash(tableKeys[n]);
+			
+			if ( ( (n - home) & mask) >= ( (n - t) & mask))
+			{
+				tableKeys[t] = tableKeys[n];
+				tableSlots[t] = tableSlots[n];
+				tableKeys[n] = EMPTY;
+				t = n;
+			}
+			
+			n = (n + 1) & mask;
+		}
+	}
+	
+	protected int hash (long key)
+	{
+		long h = key * 0x9E3779B97F4A7C15L;
+		
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+}
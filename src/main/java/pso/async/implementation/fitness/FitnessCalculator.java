@@ -16,6 +16,9 @@
  *******************************************************************************/
 package pso.async.implementation.fitness;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import pso.async.interfaces.FitnessInterface;
 import pso.implementation.search.SearchDomain;
 import pso.implementation.search.SearchDomainCoordinateConverter;
@@ -27,6 +30,72 @@ import pso.implementation.search.SearchDomainParams;
  */
 public class FitnessCalculator implements FitnessInterface
 {
+	/**
+	 * Batches of cheap fitness functions with fewer locations than this are
+	 * calculated on the calling thread
+	 */
+	public static final int						PARALLEL_THRESHOLD	= 4096;
+	
+	/**
+	 * Lookup tables are only built when they would hold at most this many
+	 * values in total
+	 */
+	public static final int						MAX_TABLE_SIZE		= 1 << 22;
+	
+	/**
+	 * Splits the locations of a batch between the threads of a
+	 * {@link ForkJoinPool}
+	 * 
+	 * @author Mike Johnson
+	 * 
+	 */
+	protected class BatchAction extends RecursiveAction
+	{
+		private static final long	serialVersionUID	= 1L;
+		
+		protected int[]				locations			= null;
+		
+		protected double[]			values				= null;
+		
+		protected int				start				= -1;
+		
+		protected int				end					= -1;
+		
+		protected int				grain				= -1;
+		
+		public BatchAction (int[] locations, double[] values, int start,
+				int end, int grain)
+		{
+			this.locations = locations;
+			this.values = values;
+			this.start = start;
+			this.end = end;
+			this.grain = grain;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute ()
+		{
+			if (end - start <= grain)
+			{
+				calculateRange(locations, values, start, end);
+			}
+			else
+			{
+				int middle = (start + end) >>> 1;
+				
+				invokeAll(new BatchAction(locations, values, start, middle,
+						grain), new BatchAction(locations, values, middle, end,
+						grain));
+			}
+		}
+	}
+	
 	/**
 	 * Used to convert the coordinates of the {@link SearchDomain} into the
 	 * domain of the fitness function
@@ -37,13 +106,39 @@ public class FitnessCalculator implements FitnessInterface
 	 * Used for fitness functions imported from a data file from the Mars
 	 * Orbiter Laser Altimeter
 	 */
-	protected double[][]						molaData	= null;
+	protected HeightmapStore					molaData	= null;
 	
 	/**
 	 * The fitness function type enum
 	 */
 	protected FitFunction						function	= null;
 	
+	/**
+	 * The pool used to calculate large or expensive batches
+	 */
+	protected ForkJoinPool						pool		=
+																	ForkJoinPool.commonPool();
+	
+	/**
+	 * For separable fitness functions, the term contributed by each index
+	 * along each axis, indexed [axis][index]. Null if the terms are calculated
+	 * directly.
+	 */
+	protected double[][]						terms		= null;
+	
+	/**
+	 * The second term for fitness functions which combine two per axis terms
+	 * (the cosine sum of Ackley and the cosine product of Griewank), null
+	 * otherwise
+	 */
+	protected double[][]						terms2		= null;
+	
+	/**
+	 * How batches of locations are evaluated when there are no lookup tables,
+	 * selected with the {@link FitnessKernel#PROPERTY} system property
+	 */
+	protected FitnessKernel						kernel		= null;
+	
 	/**
 	 * Constructor for a given {@link SearchDomain} and {@link FitFunction}
 	 * 
@@ -51,10 +146,41 @@ public class FitnessCalculator implements FitnessInterface
 	 * @param f
 	 */
 	public FitnessCalculator (SearchDomainParams params, FitFunction f)
+	{
+		this(params, f, true);
+	}
+	
+	/**
+	 * Constructor for a given {@link SearchDomain} and {@link FitFunction}
+	 * 
+	 * Since every coordinate is one of the discrete points along its axis, the
+	 * terms of a separable fitness function can be calculated once for each
+	 * point along each axis. Evaluating the fitness function is then a table
+	 * lookup and a sum for each axis. The tables are built in the same order
+	 * with the same expressions as the direct calculation, so the fitness
+	 * scores are identical either way. Fitness functions which are not
+	 * separable (Rosenbrock, CelNav) are always calculated directly.
+	 * 
+	 * @param params
+	 * @param f
+	 * @param precompute whether lookup tables should be built for separable
+	 *            fitness functions
+	 */
+	public FitnessCalculator (SearchDomainParams params, FitFunction f,
+			boolean precompute)
 	{
 		function = f;
 		
 		converter = new SearchDomainCoordinateConverter(params);
+		
+		kernel =
+				FitnessKernel.getFitnessKernel(System
+						.getProperty(FitnessKernel.PROPERTY));
+		
+		if (precompute)
+		{
+			buildTables(params);
+		}
 	}
 	
 	/**
@@ -64,6 +190,18 @@ public class FitnessCalculator implements FitnessInterface
 	 * @param mola
 	 */
 	public FitnessCalculator (SearchDomainParams params, double[][] mola)
+	{
+		this(params, new ArrayHeightmapStore(mola));
+	}
+	
+	/**
+	 * Constructor for a given {@link SearchDomain} and MOLA heightmap, which
+	 * may be shared with other calculators
+	 * 
+	 * @param params
+	 * @param mola
+	 */
+	public FitnessCalculator (SearchDomainParams params, HeightmapStore mola)
 	{
 		this(params, FitFunction.MOLA);
 		
@@ -80,39 +218,181 @@ public class FitnessCalculator implements FitnessInterface
 	 */
 	public double calculateFitness (int... m)
 	{
+		return calculateFitness(m, 0, new double[m.length]);
+	}
+	
+	/**
+	 * Calculates the fitness score of each location in a batch. Expensive
+	 * fitness functions, and cheap ones with at least
+	 * {@link FitnessCalculator#PARALLEL_THRESHOLD} locations, are split
+	 * between the threads of a {@link ForkJoinPool}.
+	 * 
+	 * @see pso.async.interfaces.FitnessInterface#calculateFitnessAll(int[],
+	 *      double[])
+	 */
+	@Override
+	public void calculateFitnessAll (int[] locations, double[] values)
+	{
+		int dim = converter.getParams().getSearchDomainDimension();
+		
+		if (locations.length != values.length * dim) { throw new IllegalArgumentException(
+				"Packed locations must hold " + dim
+						+ " indicies for each of the " + values.length
+						+ " values"); }
+		
+		int parallelism = pool.getParallelism();
+		
+		if (parallelism < 2 || values.length < 2
+				|| (!isExpensive() && values.length < PARALLEL_THRESHOLD))
+		{
+			calculateRange(locations, values, 0, values.length);
+		}
+		else
+		{
+			// a few pieces per thread so that uneven pieces balance out
+			int grain = Math.max(1, values.length / (parallelism * 4));
+			
+			pool.invoke(new BatchAction(locations, values, 0, values.length,
+					grain));
+		}
+	}
+	
+	/**
+	 * @param k how batches of locations are evaluated when there are no lookup
+	 *            tables
+	 */
+	public void setKernel (FitnessKernel k)
+	{
+		kernel = k;
+	}
+	
+	/**
+	 * @param p the pool used to calculate large or expensive batches
+	 */
+	public void setPool (ForkJoinPool p)
+	{
+		pool = p;
+	}
+	
+	/**
+	 * @return true if the fitness function costs much more than converting the
+	 *         location into coordinates
+	 */
+	protected boolean isExpensive ()
+	{
+		switch (function)
+		{
+			case MOLA:
+			case CEL_NAV:
+			case SENSOR:
+				return true;
+			default:
+				return false;
+		}
+	}
+	
+	/**
+	 * Calculates the fitness score of the locations in part of a batch, with a
+	 * single buffer for the coordinates
+	 * 
+	 * @param locations the packed indicies of each location
+	 * @param values filled with the fitness of each location
+	 * @param start the first location
+	 * @param end one past the last location
+	 */
+	protected void calculateRange (int[] locations, double[] values,
+			int start, int end)
+	{
+		int dim = converter.getParams().getSearchDomainDimension();
+		
+		double[] x = new double[dim];
+		
+		if (kernel == FitnessKernel.SOA && terms == null
+				&& SoaFitnessKernels.supports(function))
+		{
+			SoaFitnessKernels soa = new SoaFitnessKernels(dim);
+			double[][] columns = soa.getColumns();
+			
+			for (int block = start; block < end; block +=
+					SoaFitnessKernels.BLOCK_SIZE)
+			{
+				int count = Math.min(SoaFitnessKernels.BLOCK_SIZE, end - block);
+				
+				// transpose the block into one array per axis
+				for (int p = 0; p < count; p++ )
+				{
+					converter.findDomainCoordinates(locations, (block + p)
+							* dim, x);
+					
+					for (int i = 0; i < dim; i++ )
+					{
+						columns[i][p] = x[i];
+					}
+				}
+				
+				soa.evaluate(function, count, values, block);
+			}
+			
+			return;
+		}
+		
+		for (int i = start; i < end; i++ )
+		{
+			values[i] = calculateFitness(locations, i * dim, x);
+		}
+	}
+	
+	/**
+	 * Calculates the fitness score of one location
+	 * 
+	 * @param locations the packed indicies of the location
+	 * @param offset where the indicies of the location start
+	 * @param x a buffer for the coordinates of the location, one for each axis
+	 * @return the fitness score
+	 */
+	protected double calculateFitness (int[] locations, int offset, double[] x)
+	{
+		switch (function)
+		{
+			case FLAT:
+				return flat();
+			case MOLA:
+				return mola(locations[offset], locations[offset + 1]);
+			default:
+		}
+		
+		if (terms != null && isInTables(locations, offset)) { return lookup(
+				locations, offset); }
+		
+		converter.findDomainCoordinates(locations, offset, x);
+		
 		double val = Double.NaN;
 		
 		switch (function)
 		{
 			case SPHERE:
-				val = sphere(m);
+				val = sphere(x);
 				break;
 			case ROSENBROCK:
-				val = rosenbrock(m);
+				val = rosenbrock(x);
 				break;
 			case RASTRIGIN:
-				val = rastrigin(m);
+				val = rastrigin(x);
 				break;
 			case GRIEWANK:
-				val = griewank(m);
+				val = griewank(x);
 				break;
 			case ACKLEY:
-				val = ackley(m);
+				val = ackley(x);
 				break;
 			case MICHALEWICZ:
-				val = michalewicz(m);
+				val = michalewicz(x);
 				break;
 			case SCHWEFEL:
-				val = schwefel(m);
-				break;
-			case FLAT:
-				val = flat(m);
-				break;
-			case MOLA:
-				val = mola(m);
+				val = schwefel(x);
 				break;
 			case CEL_NAV:
-				val = celNav(m);
+				val = celNav(x);
 				break;
 			default:
 		}
@@ -120,6 +400,165 @@ public class FitnessCalculator implements FitnessInterface
 		return val;
 	}
 	
+	/**
+	 * Builds the lookup tables for separable fitness functions, if they are
+	 * not too large
+	 * 
+	 * @param params
+	 */
+	protected void buildTables (SearchDomainParams params)
+	{
+		int dim = params.getSearchDomainDimension();
+		
+		long total = 0;
+		
+		for (int i = 0; i < dim; i++ )
+		{
+			total += params.getAxisSize(i);
+		}
+		
+		if (total * 2 > MAX_TABLE_SIZE) { return; }
+		
+		switch (function)
+		{
+			case SPHERE:
+			case RASTRIGIN:
+			case SCHWEFEL:
+			case MICHALEWICZ:
+				terms = new double[dim][];
+				break;
+			case ACKLEY:
+			case GRIEWANK:
+				terms = new double[dim][];
+				terms2 = new double[dim][];
+				break;
+			default:
+				return;
+		}
+		
+		int slope = 10;
+		
+		for (int i = 0; i < dim; i++ )
+		{
+			int size = params.getAxisSize(i);
+			
+			terms[i] = new double[size];
+			
+			if (terms2 != null)
+			{
+				terms2[i] = new double[size];
+			}
+			
+			for (int k = 0; k < size; k++ )
+			{
+				double x = converter.findDomainCoordinate(i, k);
+				
+				// the same expressions as the direct calculations below
+				switch (function)
+				{
+					case SPHERE:
+						terms[i][k] = Math.pow(x, 2);
+						break;
+					case RASTRIGIN:
+						terms[i][k] =
+								(Math.pow(x, 2) - 10 * Math.cos(2 * Math.PI
+										* x));
+						break;
+					case SCHWEFEL:
+						terms[i][k] = (x * Math.sin(Math.sqrt(Math.abs(x))));
+						break;
+					case MICHALEWICZ:
+						terms[i][k] =
+								(Math.sin(x) * Math.pow(
+										Math.sin( (i + 1) * Math.pow(x, 2)
+												/ Math.PI), 2 * slope));
+						break;
+					case ACKLEY:
+						terms[i][k] = Math.pow(x, 2);
+						terms2[i][k] = Math.cos(2 * Math.PI * x);
+						break;
+					case GRIEWANK:
+						terms[i][k] = Math.pow(x, 2);
+						terms2[i][k] = Math.cos(x / Math.sqrt(i + 1));
+						break;
+					default:
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @param locations the packed indicies of the location
+	 * @param offset where the indicies of the location start
+	 * @return true if the lookup tables cover the location
+	 */
+	protected boolean isInTables (int[] locations, int offset)
+	{
+		for (int i = 0; i < terms.length; i++ )
+		{
+			int index = locations[offset + i];
+			
+			if (index < 0 || index >= terms[i].length) { return false; }
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Calculates the fitness score of a location from the lookup tables,
+	 * combining the terms of each axis in the same way as the direct
+	 * calculations below
+	 * 
+	 * @param locations the packed indicies of the location
+	 * @param offset where the indicies of the location start
+	 * @return the fitness score
+	 */
+	protected double lookup (int[] locations, int offset)
+	{
+		int dim = terms.length;
+		
+		double sum = 0;
+		
+		for (int i = 0; i < dim; i++ )
+		{
+			sum = sum + terms[i][locations[offset + i]];
+		}
+		
+		switch (function)
+		{
+			case SPHERE:
+				return (sum);
+			case RASTRIGIN:
+				return (10 * dim + sum);
+			case SCHWEFEL:
+				return 418.9829 * dim - sum;
+			case MICHALEWICZ:
+				return -sum;
+			case ACKLEY:
+				double sum2 = 0;
+				
+				for (int i = 0; i < dim; i++ )
+				{
+					sum2 = sum2 + terms2[i][locations[offset + i]];
+				}
+				
+				return (-20
+						* Math.exp(-0.2 * Math.sqrt( (1 / (double) dim) * sum))
+						- Math.exp( (1 / (double) dim) * sum2) + 20 + Math.E);
+			case GRIEWANK:
+				double product = 1;
+				
+				for (int i = 0; i < dim; i++ )
+				{
+					product = product * terms2[i][locations[offset + i]];
+				}
+				
+				return (sum / 4000.0 - product + 1);
+			default:
+				return Double.NaN;
+		}
+	}
+	
 	/**
 	 * This function is one of the easiest optimization functions. A.k.a the
 	 * first deJong function. There is only one minimum located at the bottom of
@@ -129,12 +568,10 @@ public class FitnessCalculator implements FitnessInterface
 	 * 
 	 * http://www.pg.gda.pl/~mkwies/dyd/geadocu/fcnfun1.html
 	 * 
-	 * @param m the vector of a location to calculate the fitness value for
+	 * @param x the coordinates of a location to calculate the fitness value for
 	 */
-	protected double sphere (int[] m)
+	protected double sphere (double[] x)
 	{
-		double[] x = converter.findDomainCoordinates(m);
-		
 		double sum = 0;
 		
 		for (int i = 0; i < x.length; i++ )
@@ -155,12 +592,10 @@ public class FitnessCalculator implements FitnessInterface
 	 * 
 	 * https://en.wikipedia.org/wiki/Rosenbrock_function
 	 * 
-	 * @param m the vector of a location to calculate the fitness value for
+	 * @param x the coordinates of a location to calculate the fitness value for
 	 */
-	protected double rosenbrock (int[] m)
+	protected double rosenbrock (double[] x)
 	{
-		double[] x = converter.findDomainCoordinates(m);
-		
 		double sum = 0;
 		
 		for (int i = 0; i < (x.length - 1); i++ )
@@ -182,12 +617,10 @@ public class FitnessCalculator implements FitnessInterface
 	 * 
 	 * https://en.wikipedia.org/wiki/Rastrigin_function
 	 * 
-	 * @param m the vector of a location to calculate the fitness value for
+	 * @param x the coordinates of a location to calculate the fitness value for
 	 */
-	protected double rastrigin (int[] m)
+	protected double rastrigin (double[] x)
 	{
-		double[] x = converter.findDomainCoordinates(m);
-		
 		double sum = 0;
 		
 		for (int i = 0; i < x.length; i++ )
@@ -208,12 +641,10 @@ public class FitnessCalculator implements FitnessInterface
 	 * 
 	 * http://www.zsd.ict.pwr.wroc.pl/files/docs/functions.pdf
 	 * 
-	 * @param m the vector of a location to calculate the fitness value for
+	 * @param x the coordinates of a location to calculate the fitness value for
 	 */
-	protected double griewank (int[] m)
+	protected double griewank (double[] x)
 	{
-		double[] x = converter.findDomainCoordinates(m);
-		
 //		System.out.println("x: " + x[0]);
 //		System.out.println("y: " + x[1]);
 		
@@ -239,12 +670,10 @@ public class FitnessCalculator implements FitnessInterface
 	 * 
 	 * http://www.zsd.ict.pwr.wroc.pl/files/docs/functions.pdf
 	 * 
-	 * @param m the vector of a location to calculate the fitness value for
+	 * @param x the coordinates of a location to calculate the fitness value for
 	 */
-	protected double ackley (int[] m)
+	protected double ackley (double[] x)
 	{
-		double[] x = converter.findDomainCoordinates(m);
-		
 		double sum = 0;
 		double sum2 = 0;
 		
@@ -268,12 +697,10 @@ public class FitnessCalculator implements FitnessInterface
 	 * 
 	 * http://www.zsd.ict.pwr.wroc.pl/files/docs/functions.pdf
 	 * 
-	 * @param m the vector of a location to calculate the fitness value for
+	 * @param x the coordinates of a location to calculate the fitness value for
 	 */
-	protected double michalewicz (int[] m)
+	protected double michalewicz (double[] x)
 	{
-		double[] x = converter.findDomainCoordinates(m);
-		
 		int slope = 10;
 		
 		double sum = 0;
@@ -299,12 +726,10 @@ public class FitnessCalculator implements FitnessInterface
 	 * 
 	 * http://www.zsd.ict.pwr.wroc.pl/files/docs/functions.pdf
 	 * 
-	 * @param m the vector of a location to calculate the fitness value for
+	 * @param x the coordinates of a location to calculate the fitness value for
 	 */
-	protected double schwefel (int[] m)
+	protected double schwefel (double[] x)
 	{
-		double[] x = converter.findDomainCoordinates(m);
-		
 		double sum = 0;
 		
 		for (int i = 0; i < x.length; i++ )
@@ -315,10 +740,8 @@ public class FitnessCalculator implements FitnessInterface
 		return 418.9829 * x.length - sum;
 	}
 	
-	protected double celNav (int[] m)
+	protected double celNav (double[] x)
 	{
-		double[] x = converter.findDomainCoordinates(m);
-		
 		double factor = 3600 / 24.2;
 		
 		double xi = 929.1361;
@@ -347,9 +770,8 @@ public class FitnessCalculator implements FitnessInterface
 	/**
 	 * This function is designed to always return a fitness score of 1
 	 * 
-	 * @param m the vector of a location to calculate the fitness value for
 	 */
-	protected double flat (int[] m)
+	protected double flat ()
 	{
 		return 1.0;
 	}
@@ -357,27 +779,15 @@ public class FitnessCalculator implements FitnessInterface
 	/**
 	 * This function returns a value based on a PNG greyscale heightmap.
 	 * 
-	 * @param m the vector of a location to calculate the fitness value for
+	 * @param i the index of the location along the first axis
+	 * @param j the index of the location along the second axis
 	 */
-	protected double mola (int[] m)
+	protected double mola (int i, int j)
 	{
 		if (molaData == null) { throw new IllegalStateException(
 				"No MOLA Data set"); }
 		
-		int i = m[0];
-		int j = m[1];
-		
-		if (i > (molaData.length - 1) || i < 0)
-		{
-			return Double.NaN;
-		}
-		
-		if (j > (molaData[i].length - 1) || j < 0)
-		{
-			return Double.NaN;
-		}
-		
-		double val = molaData[i][j];
+		double val = molaData.getValue(i, j);
 		
 		return val;
 	}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.async.implementation.fitness;
+
+/**
+ * Selects how {@link FitnessCalculator} evaluates a batch of locations
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public enum FitnessKernel
+{
+	/**
+	 * One location at a time
+	 */
+	SCALAR("Scalar"),
+	
+	/**
+	 * Blocks of locations at a time, with the coordinates stored axis by axis
+	 * so that the loops over the locations can be vectorized
+	 */
+	SOA("SoA");
+	
+	/**
+	 * The system property used to select the kernel at runtime
+	 */
+	public static final String	PROPERTY	= "pso.fitness.kernel";
+	
+	private String				name		= null;
+	
+	private FitnessKernel (String name)
+	{
+		this.name = name;
+	}
+	
+	public String getName ()
+	{
+		return name;
+	}
+	
+	public static FitnessKernel getFitnessKernel (String name)
+	{
+		if (name != null && name.equalsIgnoreCase(SCALAR.getName()))
+		{
+			return SCALAR;
+		}
+		else
+		{
+			return SOA;
+		}
+	}
+}
@@ -17,7 +17,6 @@
 package pso.async.implementation.fitness;
 
 import java.io.Serializable;
-import java.util.Arrays;
 
 public class FitnessState implements Serializable
 {
@@ -79,6 +78,7 @@ public class FitnessState implements Serializable
 		lowerBound = fit.lowerBound;
 		upperBound = fit.upperBound;
 		molaData = fit.molaData;
+		molaFile = fit.molaFile;
 		lowerInitializationBound = fit.lowerInitializationBound;
 		upperInitializationBound = fit.upperInitializationBound;
 	}
@@ -213,6 +213,13 @@ public class FitnessState implements Serializable
 		return molaData;
 	}
 	
+	/**
+	 * Sets the heightmap or image file used by the MOLA fitness function, which
+	 * is memory mapped and shared rather than loaded onto the heap
+	 * 
+	 * @param file
+	 * @see HeightmapRegistry
+	 */
 	public void setMolaFile (String file)
 	{
 		molaFile = file;
@@ -288,7 +295,8 @@ public class FitnessState implements Serializable
 		result = prime * result + (int) (temp ^ (temp >>> 32));
 		temp = Double.doubleToLongBits(lowerInitializationBound);
 		result = prime * result + (int) (temp ^ (temp >>> 32));
-		result = prime * result + Arrays.hashCode(molaData);
+		// the heights are identified by their file, or by the array itself
+		result = prime * result + System.identityHashCode(molaData);
 		result =
 				prime * result
 						+ ( (molaFile == null) ? 0 : molaFile.hashCode());
@@ -317,7 +325,7 @@ public class FitnessState implements Serializable
 				.doubleToLongBits(other.lowerBound)) return false;
 		if (Double.doubleToLongBits(lowerInitializationBound) != Double
 				.doubleToLongBits(other.lowerInitializationBound)) return false;
-		if (!Arrays.deepEquals(molaData, other.molaData)) return false;
+		if (molaData != other.molaData) return false;
 		if (molaFile == null)
 		{
 			if (other.molaFile != null) return false;
@@ -340,7 +348,9 @@ public class FitnessState implements Serializable
 	{
 		return String
 				.format("FitnessState [f=%s, molaData=%s, molaFile=%s, lowerBound=%s, upperBound=%s, lowerInitializationBound=%s, upperInitializationBound=%s, axisSize=%s]",
-						f, Arrays.toString(molaData), molaFile, lowerBound,
+						f, molaData == null ? null : molaData.length + "x"
+								+ (molaData.length == 0 ? 0 : molaData[0].length),
+						molaFile, lowerBound,
 						upperBound, lowerInitializationBound,
 						upperInitializationBound, axisSize);
 	}
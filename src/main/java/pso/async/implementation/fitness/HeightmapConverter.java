@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.async.implementation.fitness;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.imageio.ImageIO;
+
+import pso.async.implementation.fitness.MappedHeightmapStore.CellType;
+
+/**
+ * Converts a raster image into the tiled heightmap file read by
+ * {@link MappedHeightmapStore}. Any image ImageIO can read may be converted,
+ * which includes PNG and (baseline, without the geographic tags) GeoTIFF.
+ * 
+ * Single band images use the raw sample as the height, so 16 bit and floating
+ * point heightmaps keep their full precision. Other images use the average of
+ * the red, green and blue components, the same as
+ * {@link pso.ImageHandler#extractHeights()}.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class HeightmapConverter
+{
+	public static final int	DEFAULT_TILE_SIZE	= 256;
+	
+	/**
+	 * Converts an image file into a heightmap file
+	 * 
+	 * @param image
+	 * @param out
+	 * @param type
+	 * @throws IOException if the image could not be read or the heightmap
+	 *             could not be written
+	 */
+	public static void convert (Path image, Path out, CellType type)
+			throws IOException
+	{
+		BufferedImage img = ImageIO.read(image.toFile());
+		
+		if (img == null) { throw new IOException("Unsupported image format: "
+				+ image); }
+		
+		convert(img, out, type, DEFAULT_TILE_SIZE);
+	}
+	
+	/**
+	 * Converts an image into a heightmap file
+	 * 
+	 * @param img
+	 * @param out
+	 * @param type
+	 * @param tileSize the number of heights along each side of a tile
+	 * @throws IOException if the heightmap could not be written
+	 */
+	public static void convert (BufferedImage img, Path out, CellType type,
+			int tileSize) throws IOException
+	{
+		if (tileSize < 1) { throw new IllegalArgumentException(
+				"Tile size must be positive"); }
+		
+		int width = img.getWidth();
+		int height = img.getHeight();
+		
+		// short cells are scaled to cover the range of the heights
+		double scale = 1.0;
+		double offset = 0.0;
+		
+		if (type == CellType.SHORT)
+		{
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			
+			for (int y = 0; y < height; y++ )
+			{
+				for (int x = 0; x < width; x++ )
+				{
+					double h = heightAt(img, x, y);
+					
+					min = Math.min(min, h);
+					max = Math.max(max, h);
+				}
+			}
+			
+			offset = min;
+			scale = max > min ? (max - min) / 0xFFFF : 1.0;
+		}
+		
+		try (FileChannel ch =
+				FileChannel.open(out, StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			ByteBuffer header =
+					ByteBuffer.allocate(MappedHeightmapStore.HEADER_SIZE).order(
+							MappedHeightmapStore.ORDER);
+			
+			header.putLong(MappedHeightmapStore.MAGIC);
+			header.putInt(MappedHeightmapStore.VERSION);
+			header.putInt(type.getBytes());
+			header.putInt(width);
+			header.putInt(height);
+			header.putInt(tileSize);
+			header.putInt(0);
+			header.putDouble(scale);
+			header.putDouble(offset);
+			header.rewind();
+			
+			writeFully(ch, header);
+			
+			ByteBuffer tile =
+					ByteBuffer.allocate(tileSize * tileSize * type.getBytes())
+							.order(MappedHeightmapStore.ORDER);
+			
+			for (int ty = 0; ty < height; ty += tileSize)
+			{
+				for (int tx = 0; tx < width; tx += tileSize)
+				{
+					tile.clear();
+					
+					for (int y = ty; y < ty + tileSize; y++ )
+					{
+						for (int x = tx; x < tx + tileSize; x++ )
+						{
+							// pad the edge tiles
+							double h =
+									x < width && y < height ? heightAt(img, x,
+											y) : offset;
+							
+							if (type == CellType.SHORT)
+							{
+								tile.putShort((short) Math.round( (h - offset)
+										/ scale));
+							}
+							else
+							{
+								tile.putFloat((float) h);
+							}
+						}
+					}
+					
+					tile.flip();
+					writeFully(ch, tile);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @param img
+	 * @param x
+	 * @param y
+	 * @return the height of a pixel
+	 */
+	protected static double heightAt (BufferedImage img, int x, int y)
+	{
+		Raster raster = img.getRaster();
+		
+		if (raster.getNumBands() == 1
+				&& !(img.getColorModel() instanceof IndexColorModel)) { return raster
+				.getSampleDouble(x, y, 0); }
+		
+		// averages values in case not greyscale
+		int rgb = img.getRGB(x, y);
+		
+		return ( ( (rgb >> 16) & 0xFF) + (rgb & 0xFF) + ( (rgb >> 8) & 0xFF)) / 3.0;
+	}
+	
+	protected static void writeFully (FileChannel ch, ByteBuffer buf)
+			throws IOException
+	{
+		while (buf.hasRemaining())
+		{
+			ch.write(buf);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.async.implementation.fitness;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import log.ApplicationLogger;
+
+import pso.async.implementation.fitness.MappedHeightmapStore.CellType;
+
+/**
+ * Shares one {@link MappedHeightmapStore} for each heightmap file between
+ * every {@link FitnessCalculator} in the process, so that the simulations of
+ * a batch and the particles of a simulation all read the same mapped pages.
+ * 
+ * If the file named is an image rather than a heightmap file, it is converted
+ * into a heightmap file next to it (with the extension
+ * {@link HeightmapRegistry#EXTENSION}) the first time it is opened, and the
+ * converted file is reused as long as it is newer than the image.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class HeightmapRegistry
+{
+	public static final String						EXTENSION	= ".hmap";
+	
+	protected static Map<Path, MappedHeightmapStore>	stores		=
+																		new HashMap<Path, MappedHeightmapStore>();
+	
+	private HeightmapRegistry ()
+	{
+		// Exists only to defeat instantiation.
+	}
+	
+	/**
+	 * Gets the shared store for a heightmap or image file
+	 * 
+	 * @param fileName
+	 * @return
+	 * @throws IOException if the file could not be read or converted
+	 */
+	public static synchronized MappedHeightmapStore open (String fileName)
+			throws IOException
+	{
+		Path path = Paths.get(fileName).toAbsolutePath().normalize();
+		
+		MappedHeightmapStore store = stores.get(path);
+		
+		if (store == null)
+		{
+			Path mapped = path;
+			
+			if (!MappedHeightmapStore.isHeightmapFile(path))
+			{
+				mapped = path.resolveSibling(path.getFileName() + EXTENSION);
+				
+				if (!Files.exists(mapped)
+						|| Files.getLastModifiedTime(mapped).compareTo(
+								Files.getLastModifiedTime(path)) < 0)
+				{
+					HeightmapConverter.convert(path, mapped, CellType.FLOAT);
+				}
+			}
+			
+			store = new MappedHeightmapStore(mapped);
+			stores.put(path, store);
+		}
+		
+		return store;
+	}
+	
+	/**
+	 * Releases every shared store
+	 */
+	public static synchronized void closeAll ()
+	{
+		for (MappedHeightmapStore store : stores.values())
+		{
+			try
+			{
+				store.close();
+			}
+			catch (IOException e)
+			{
+				ApplicationLogger.getInstance().logException(e);
+			}
+		}
+		
+		stores.clear();
+	}
+}
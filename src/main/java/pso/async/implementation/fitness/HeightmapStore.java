@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.async.implementation.fitness;
+
+/**
+ * A read-only grid of heights used by the MOLA fitness function. The heights
+ * are indexed the same way as the matrix built by
+ * {@link pso.ImageHandler#extractHeights()}: x along the width of the image
+ * and y along its height.
+ * 
+ * Implementations must be safe to read from every particle's thread at once.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public interface HeightmapStore
+{
+	/**
+	 * @return the number of heights along x
+	 */
+	public int getWidth ();
+	
+	/**
+	 * @return the number of heights along y
+	 */
+	public int getHeight ();
+	
+	/**
+	 * @param x
+	 * @param y
+	 * @return the height at the location, Double.NaN if it is outside the grid
+	 */
+	public double getValue (int x, int y);
+}
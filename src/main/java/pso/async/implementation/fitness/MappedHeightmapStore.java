@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.async.implementation.fitness;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link HeightmapStore} read from a memory mapped heightmap file written by
+ * {@link HeightmapConverter}. Opening the file only maps it, so even very large
+ * heightmaps open almost instantly, and the pages are shared by every thread
+ * (and every process) reading the same file instead of being copied onto the
+ * heap.
+ * 
+ * The file is laid out as a header followed by square tiles of heights, so
+ * that heights which are close together in both x and y are close together in
+ * the file:<br>
+ * <br>
+ * header: magic number, version, cell type, width, height, tile size, scale,
+ * offset<br>
+ * tiles: ordered by y then x, each holding its heights ordered by y then x<br>
+ * <br>
+ * Each height is stored either as a float, or as an unsigned short which is
+ * multiplied by the scale and added to the offset. Tiles on the right and
+ * bottom edges are padded to the full tile size.
+ * 
+ * The mapped buffers are only read with absolute gets, so they are safe to
+ * read from any number of threads.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class MappedHeightmapStore implements HeightmapStore, Closeable
+{
+	/**
+	 * How each height is stored in the file
+	 */
+	public enum CellType
+	{
+		SHORT(2), FLOAT(4);
+		
+		private int	bytes	= -1;
+		
+		private CellType (int bytes)
+		{
+			this.bytes = bytes;
+		}
+		
+		/**
+		 * @return the number of bytes used by each height
+		 */
+		public int getBytes ()
+		{
+			return bytes;
+		}
+	}
+	
+	public static final long		MAGIC		= 0x5053_4F48_4D41_5031L;
+	
+	public static final int			VERSION		= 1;
+	
+	public static final int			HEADER_SIZE	= 64;
+	
+	public static final ByteOrder	ORDER		= ByteOrder.LITTLE_ENDIAN;
+	
+	/**
+	 * The largest number of bytes mapped by a single buffer
+	 */
+	protected static final int		CHUNK_SIZE	= 1 << 30;
+	
+	protected Path					file		= null;
+	
+	protected FileChannel			channel		= null;
+	
+	protected CellType				type		= null;
+	
+	protected int					width		= -1;
+	
+	protected int					height		= -1;
+	
+	protected int					tileSize	= -1;
+	
+	protected int					tilesX		= -1;
+	
+	protected double				scale		= 1.0;
+	
+	protected double				offset		= 0.0;
+	
+	/**
+	 * The number of bytes in each tile
+	 */
+	protected int					tileBytes	= -1;
+	
+	/**
+	 * The number of whole tiles mapped by each buffer
+	 */
+	protected int					tilesPerChunk	= -1;
+	
+	protected MappedByteBuffer[]	chunks		= null;
+	
+	/**
+	 * Maps a heightmap file
+	 * 
+	 * @param file
+	 * @throws IOException if the file is not a heightmap file
+	 */
+	public MappedHeightmapStore (Path file) throws IOException
+	{
+		this.file = file;
+		
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		
+		try
+		{
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+			channel.read(header, 0);
+			header.flip();
+			
+			if (header.remaining() < HEADER_SIZE || header.getLong() != MAGIC
+					|| header.getInt() != VERSION) { throw new IOException(
+					"Not a heightmap file: " + file); }
+			
+			type =
+					header.getInt() == CellType.SHORT.getBytes() ? CellType.SHORT
+							: CellType.FLOAT;
+			width = header.getInt();
+			height = header.getInt();
+			tileSize = header.getInt();
+			header.getInt();
+			scale = header.getDouble();
+			offset = header.getDouble();
+			
+			tilesX = (width + tileSize - 1) / tileSize;
+			int tilesY = (height + tileSize - 1) / tileSize;
+			
+			tileBytes = tileSize * tileSize * type.getBytes();
+			tilesPerChunk = Math.max(1, CHUNK_SIZE / tileBytes);
+			
+			long tiles = (long) tilesX * tilesY;
+			int count = (int) ( (tiles + tilesPerChunk - 1) / tilesPerChunk);
+			
+			chunks = new MappedByteBuffer[count];
+			
+			for (int c = 0; c < count; c++ )
+			{
+				long first = (long) c * tilesPerChunk;
+				long length = Math.min(tilesPerChunk, tiles - first) * tileBytes;
+				
+				chunks[c] =
+						channel.map(MapMode.READ_ONLY, HEADER_SIZE + first
+								* tileBytes, length);
+				chunks[c].order(ORDER);
+			}
+		}
+		catch (IOException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * @param file
+	 * @return true if the file starts with the heightmap file magic number
+	 */
+	public static boolean isHeightmapFile (Path file)
+	{
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			ByteBuffer magic = ByteBuffer.allocate(8).order(ORDER);
+			ch.read(magic, 0);
+			magic.flip();
+			
+			return magic.remaining() == 8 && magic.getLong() == MAGIC;
+		}
+		catch (IOException e)
+		{
+			return false;
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.async.implementation.fitness.HeightmapStore#getWidth()
+	 */
+	@Override
+	public int getWidth ()
+	{
+		return width;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.async.implementation.fitness.HeightmapStore#getHeight()
+	 */
+	@Override
+	public int getHeight ()
+	{
+		return height;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.async.implementation.fitness.HeightmapStore#getValue(int, int)
+	 */
+	@Override
+	public double getValue (int x, int y)
+	{
+		if (x < 0 || x >= width || y < 0 || y >= height) { return Double.NaN; }
+		
+		long tile = (long) (y / tileSize) * tilesX + (x / tileSize);
+		
+		int cell = (y % tileSize) * tileSize + (x % tileSize);
+		
+		MappedByteBuffer chunk = chunks[(int) (tile / tilesPerChunk)];
+		int position =
+				(int) (tile % tilesPerChunk) * tileBytes + cell
+						* type.getBytes();
+		
+		if (type == CellType.SHORT) { return (chunk.getShort(position) & 0xFFFF)
+				* scale + offset; }
+		
+		return chunk.getFloat(position);
+	}
+	
+	/**
+	 * @return the heightmap file
+	 */
+	public Path getFile ()
+	{
+		return file;
+	}
+	
+	/**
+	 * Releases the file. The store must not be read afterwards.
+	 */
+	@Override
+	public void close () throws IOException
+	{
+		chunks = null;
+		channel.close();
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString ()
+	{
+		return String.format(
+				"MappedHeightmapStore [file=%s, type=%s, width=%d, height=%d, tileSize=%d]",
+				file, type, width, height, tileSize);
+	}
+}
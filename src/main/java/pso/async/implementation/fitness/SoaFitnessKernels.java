@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.async.implementation.fitness;
+
+/**
+ * Evaluates a fitness function for a block of locations at once. The
+ * coordinates of the block are stored in a structure of arrays layout, one
+ * array per axis, and each kernel loops over the axes on the outside and the
+ * locations on the inside. The inner loops are simple enough for the JIT
+ * compiler to vectorize them.
+ * 
+ * The kernels compute squares by multiplication and raise to integer powers
+ * by repeated squaring rather than calling Math.pow, so their results match
+ * the scalar implementations in {@link FitnessCalculator} to within rounding
+ * rather than exactly.
+ * 
+ * Each instance holds the buffers for one block, so it must only be used by
+ * one thread at a time.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class SoaFitnessKernels
+{
+	/**
+	 * The number of locations in each block
+	 */
+	public static final int	BLOCK_SIZE	= 256;
+	
+	/**
+	 * The coordinates of the locations in the block, indexed [axis][location]
+	 */
+	protected double[][]	columns		= null;
+	
+	/**
+	 * Accumulators for each location in the block
+	 */
+	protected double[]		sum			= null;
+	
+	protected double[]		sum2		= null;
+	
+	public SoaFitnessKernels (int dimension)
+	{
+		columns = new double[dimension][BLOCK_SIZE];
+		sum = new double[BLOCK_SIZE];
+		sum2 = new double[BLOCK_SIZE];
+	}
+	
+	/**
+	 * @param f
+	 * @return true if there is a kernel for the fitness function
+	 */
+	public static boolean supports (FitFunction f)
+	{
+		switch (f)
+		{
+			case SPHERE:
+			case ROSENBROCK:
+			case RASTRIGIN:
+			case GRIEWANK:
+			case ACKLEY:
+			case MICHALEWICZ:
+			case SCHWEFEL:
+				return true;
+			default:
+				return false;
+		}
+	}
+	
+	/**
+	 * @return the coordinates of the block, indexed [axis][location], to be
+	 *         filled before calling
+	 *         {@link SoaFitnessKernels#evaluate(FitFunction, int, double[], int)}
+	 */
+	public double[][] getColumns ()
+	{
+		return columns;
+	}
+	
+	/**
+	 * Evaluates the fitness function for the locations in the block
+	 * 
+	 * @param f the fitness function
+	 * @param count how many locations are in the block
+	 * @param values filled with the fitness of each location
+	 * @param offset where the fitness of the first location is written
+	 */
+	public void evaluate (FitFunction f, int count, double[] values, int offset)
+	{
+		switch (f)
+		{
+			case SPHERE:
+				sphere(count, values, offset);
+				break;
+			case ROSENBROCK:
+				rosenbrock(count, values, offset);
+				break;
+			case RASTRIGIN:
+				rastrigin(count, values, offset);
+				break;
+			case GRIEWANK:
+				griewank(count, values, offset);
+				break;
+			case ACKLEY:
+				ackley(count, values, offset);
+				break;
+			case MICHALEWICZ:
+				michalewicz(count, values, offset);
+				break;
+			case SCHWEFEL:
+				schwefel(count, values, offset);
+				break;
+			default:
+				throw new IllegalArgumentException("No kernel for " + f);
+		}
+	}
+	
+	protected void sphere (int count, double[] values, int offset)
+	{
+		clear(sum, count);
+		
+		for (double[] x : columns)
+		{
+			for (int p = 0; p < count; p++ )
+			{
+				sum[p] += x[p] * x[p];
+			}
+		}
+		
+		System.arraycopy(sum, 0, values, offset, count);
+	}
+	
+	protected void rosenbrock (int count, double[] values, int offset)
+	{
+		clear(sum, count);
+		
+		for (int i = 0; i < columns.length - 1; i++ )
+		{
+			double[] x = columns[i];
+			double[] next = columns[i + 1];
+			
+			for (int p = 0; p < count; p++ )
+			{
+				double a = next[p] - x[p] * x[p];
+				double b = 1 - x[p];
+				
+				sum[p] += 100 * a * a + b * b;
+			}
+		}
+		
+		System.arraycopy(sum, 0, values, offset, count);
+	}
+	
+	protected void rastrigin (int count, double[] values, int offset)
+	{
+		clear(sum, count);
+		
+		for (double[] x : columns)
+		{
+			for (int p = 0; p < count; p++ )
+			{
+				sum[p] += x[p] * x[p] - 10 * Math.cos(2 * Math.PI * x[p]);
+			}
+		}
+		
+		int n = columns.length;
+		
+		for (int p = 0; p < count; p++ )
+		{
+			values[offset + p] = 10 * n + sum[p];
+		}
+	}
+	
+	protected void griewank (int count, double[] values, int offset)
+	{
+		clear(sum, count);
+		
+		// the product of the cosines
+		for (int p = 0; p < count; p++ )
+		{
+			sum2[p] = 1;
+		}
+		
+		for (int i = 0; i < columns.length; i++ )
+		{
+			double[] x = columns[i];
+			double root = Math.sqrt(i + 1);
+			
+			for (int p = 0; p < count; p++ )
+			{
+				sum[p] += x[p] * x[p];
+				sum2[p] *= Math.cos(x[p] / root);
+			}
+		}
+		
+		for (int p = 0; p < count; p++ )
+		{
+			values[offset + p] = sum[p] / 4000.0 - sum2[p] + 1;
+		}
+	}
+	
+	protected void ackley (int count, double[] values, int offset)
+	{
+		clear(sum, count);
+		clear(sum2, count);
+		
+		for (double[] x : columns)
+		{
+			for (int p = 0; p < count; p++ )
+			{
+				sum[p] += x[p] * x[p];
+				sum2[p] += Math.cos(2 * Math.PI * x[p]);
+			}
+		}
+		
+		double scale = 1 / (double) columns.length;
+		
+		for (int p = 0; p < count; p++ )
+		{
+			values[offset + p] =
+					-20 * Math.exp(-0.2 * Math.sqrt(scale * sum[p]))
+							- Math.exp(scale * sum2[p]) + 20 + Math.E;
+		}
+	}
+	
+	protected void michalewicz (int count, double[] values, int offset)
+	{
+		clear(sum, count);
+		
+		for (int i = 0; i < columns.length; i++ )
+		{
+			double[] x = columns[i];
+			int k = i + 1;
+			
+			for (int p = 0; p < count; p++ )
+			{
+				double s = Math.sin(k * (x[p] * x[p]) / Math.PI);
+				
+				// s^20 with a slope of 10
+				double s2 = s * s;
+				double s4 = s2 * s2;
+				double s16 = s4 * s4 * s4 * s4;
+				
+				sum[p] += Math.sin(x[p]) * s16 * s4;
+			}
+		}
+		
+		for (int p = 0; p < count; p++ )
+		{
+			values[offset + p] = -sum[p];
+		}
+	}
+	
+	protected void schwefel (int count, double[] values, int offset)
+	{
+		clear(sum, count);
+		
+		for (double[] x : columns)
+		{
+			for (int p = 0; p < count; p++ )
+			{
+				sum[p] += x[p] * Math.sin(Math.sqrt(Math.abs(x[p])));
+			}
+		}
+		
+		double n = 418.9829 * columns.length;
+		
+		for (int p = 0; p < count; p++ )
+		{
+			values[offset + p] = n - sum[p];
+		}
+	}
+	
+	protected static void clear (double[] a, int count)
+	{
+		for (int p = 0; p < count; p++ )
+		{
+			a[p] = 0;
+		}
+	}
+}
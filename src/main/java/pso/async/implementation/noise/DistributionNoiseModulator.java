@@ -36,6 +36,11 @@ public class DistributionNoiseModulator implements NoiseModulator
 	
 	protected int				axisSize	= -1;
 	
+	/**
+	 * The noise added to the input, reused between calls
+	 */
+	protected int[]				noise		= null;
+	
 	/**
 	 * 
 	 */
@@ -55,10 +60,28 @@ public class DistributionNoiseModulator implements NoiseModulator
 	@Override
 	public int[] transfer (int... input) throws MisconfiguredBlockException
 	{
-		// if (input.length != state.) { throw new MisconfiguredBlockException(
-		// "Input vector must have same size as RNG array"); }
-		//
-		int[] noise = state.generateRandomVectorPrimary();
+		transferInto(input, input);
+		
+		return input;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.async.interfaces.NoiseModulator#transferInto(int[], int[])
+	 */
+	@Override
+	public void transferInto (int[] input, int[] output)
+			throws MisconfiguredBlockException
+	{
+		int half = (int) Math.floor(input.length / 2.0);
+		
+		if (noise == null || noise.length != input.length - half)
+		{
+			noise = new int[input.length - half];
+		}
+		
+		state.generateRandomVectorPrimary(noise);
 		
 		for (int i = 0; i < noise.length; i++ )
 		{
@@ -70,18 +93,24 @@ public class DistributionNoiseModulator implements NoiseModulator
 			noise[i] = (int) Math.floor((gain * noise[i]));
 		}
 		
-		ApplicationLogger.getInstance().logDebug(
-				"Noise: " + Arrays.toString(noise));
-		ApplicationLogger.getInstance().logDebug(
-				"Input: " + Arrays.toString(input));
+		ApplicationLogger log = ApplicationLogger.getInstance();
+		
+		if (log.isDebugOn())
+		{
+			log.logDebug("Noise: " + Arrays.toString(noise));
+			log.logDebug("Input: " + Arrays.toString(input));
+		}
+		
+		if (input != output)
+		{
+			System.arraycopy(input, 0, output, 0, half);
+		}
 		
 		int count = 0;
-		for (int i = (int) Math.floor(input.length / 2.0); i < input.length; i++ )
+		for (int i = half; i < input.length; i++ )
 		{
-			input[i] = input[i] + noise[count];
+			output[i] = input[i] + noise[count];
 			count++ ;
 		}
-		
-		return input;
 	}
 }
@@ -39,4 +39,19 @@ public class NoNoiseModulator implements NoiseModulator
 		return input;
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.async.interfaces.NoiseModulator#transferInto(int[], int[])
+	 */
+	@Override
+	public void transferInto (int[] input, int[] output)
+			throws MisconfiguredBlockException
+	{
+		if (input != output)
+		{
+			System.arraycopy(input, 0, output, 0, input.length);
+		}
+	}
+	
 }
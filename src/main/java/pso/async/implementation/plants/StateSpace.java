@@ -75,6 +75,20 @@ public class StateSpace implements Plant
 	 */
 	protected int[]			state			= null;
 	
+	/**
+	 * The entries of the A, B, C and D Matrices, used by
+	 * {@link StateSpace#transferInto(int[], int[])}
+	 */
+	protected double[][]	a				= null;
+	protected double[][]	b				= null;
+	protected double[][]	c				= null;
+	protected double[][]	d				= null;
+	
+	/**
+	 * The next state vector before it is rounded, reused between calls
+	 */
+	protected double[]		exactState		= null;
+	
 	/**
 	 * Constructs a {@link StateSpace} system from a set of
 	 * {@link LinearPlantParameters}
@@ -124,6 +138,13 @@ public class StateSpace implements Plant
 		
 		if (ovs != D.getRowDimension()) { throw new MisconfiguredBlockException(
 				"D Matrix must have same number of Rows as size of output vector."); }
+		
+		a = A.getData();
+		b = B.getData();
+		c = C.getData();
+		d = D.getData();
+		
+		exactState = new double[svs];
 	}
 	
 	/**
@@ -150,6 +171,7 @@ public class StateSpace implements Plant
 	public void setA (RealMatrix a)
 	{
 		A = a;
+		this.a = a.getData();
 	}
 	
 	/**
@@ -166,6 +188,7 @@ public class StateSpace implements Plant
 	public void setB (RealMatrix b)
 	{
 		B = b;
+		this.b = b.getData();
 	}
 	
 	/**
@@ -182,6 +205,7 @@ public class StateSpace implements Plant
 	public void setC (RealMatrix c)
 	{
 		C = c;
+		this.c = c.getData();
 	}
 	
 	/**
@@ -198,6 +222,7 @@ public class StateSpace implements Plant
 	public void setD (RealMatrix d)
 	{
 		D = d;
+		this.d = d.getData();
 	}
 	
 	/**
@@ -326,6 +351,69 @@ public class StateSpace implements Plant
 		return outputIndicies;
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.async.interfaces.Plant#transferInto(int[], int[])
+	 */
+	@Override
+	public void transferInto (int[] input, int[] output)
+			throws MisconfiguredBlockException
+	{
+		if (input.length != b[0].length) { throw new MisconfiguredBlockException(
+				"Input vector must have dimension equal to B Matrix number of Columns."); }
+		
+		if (output.length != c.length) { throw new MisconfiguredBlockException(
+				"Output vector must have dimension equal to C Matrix number of Rows."); }
+		
+		// each product is summed in column order and the two products are
+		// added afterwards, as RealMatrix#multiply and RealMatrix#add do, so
+		// the result is the same as transfer(int...)
+		for (int i = 0; i < exactState.length; i++ )
+		{
+			exactState[i] = dot(a[i], state) + dot(b[i], input);
+		}
+		
+		for (int i = 0; i < output.length; i++ )
+		{
+			double[] row = c[i];
+			double sum = 0;
+			
+			for (int j = 0; j < row.length; j++ )
+			{
+				sum += row[j] * exactState[j];
+			}
+			
+			output[i] = (int) Math.floor(sum + dot(d[i], input));
+		}
+		
+		for (int i = 0; i < state.length; i++ )
+		{
+			nextState[i] = (int) Math.floor(exactState[i]);
+		}
+		
+		propagateState();
+	}
+	
+	/**
+	 * Multiplies a row of a Matrix with an integer vector
+	 * 
+	 * @param row
+	 * @param vector
+	 * @return
+	 */
+	protected static double dot (double[] row, int[] vector)
+	{
+		double sum = 0;
+		
+		for (int i = 0; i < row.length; i++ )
+		{
+			sum += row[i] * vector[i];
+		}
+		
+		return sum;
+	}
+	
 	/**
 	 * Increments one timestep in the signal.
 	 * 
@@ -33,4 +33,15 @@ public interface BoundaryInterface
 	 */
 	public int[] handleBoundary (int[] nextState)
 			throws MisconfiguredBlockException;
+	
+	/**
+	 * Performs the Boundary Handling technique on the state vector in place,
+	 * without allocating. The state vector holds the particle's current
+	 * location followed by its next location.
+	 * 
+	 * @param nextState the state vector of the current particle
+	 * @throws MisconfiguredBlockException
+	 */
+	public void handleBoundaryInPlace (int[] nextState)
+			throws MisconfiguredBlockException;
 }
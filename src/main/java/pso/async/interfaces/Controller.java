@@ -26,4 +26,15 @@ import pso.MisconfiguredBlockException;
 public interface Controller
 {
 	public int[] transfer (int... error) throws MisconfiguredBlockException;
+	
+	/**
+	 * Applies the control law to the error vector, writing the result into
+	 * the output vector without allocating. The output may be the error.
+	 * 
+	 * @param error
+	 * @param output
+	 * @throws MisconfiguredBlockException
+	 */
+	public void transferInto (int[] error, int[] output)
+			throws MisconfiguredBlockException;
 }
@@ -36,6 +36,17 @@ public interface DuplicateInterface
 	 */
 	public boolean isAlreadyObserved (int[] location);
 	
+	/**
+	 * Checks whether each of a number of locations has already been observed.
+	 * The indicies of the locations are packed one after another into a single
+	 * array.
+	 * 
+	 * @param locations the packed indicies of each location
+	 * @param observed set to true for each location which has already been
+	 *            observed
+	 */
+	public void areAlreadyObserved (int[] locations, boolean[] observed);
+	
 	/**
 	 * Selects a location within the {@link SearchDomainInterface} which has not
 	 * yet been observed and returns it.
@@ -26,4 +26,16 @@ import pso.MisconfiguredBlockException;
 public interface ErrorCalculator
 {
 	public int[] transfer(int[] desired, int[] measured) throws MisconfiguredBlockException;
+	
+	/**
+	 * Calculates the error between the desired and measured vectors, writing
+	 * it into the output vector without allocating
+	 * 
+	 * @param desired
+	 * @param measured
+	 * @param output
+	 * @throws MisconfiguredBlockException
+	 */
+	public void transferInto (int[] desired, int[] measured, int[] output)
+			throws MisconfiguredBlockException;
 }
@@ -57,4 +57,17 @@ public interface FeedbackControlSystem
 	 * @throws MisconfiguredBlockException
 	 */
 	public int[] transfer (int... desired) throws MisconfiguredBlockException;
+	
+	/**
+	 * Tracks the desired state vector like
+	 * {@link FeedbackControlSystem#transfer(int...)}, but writes the output
+	 * vector into an array owned by the caller. Once the system has been
+	 * initialized this does not allocate.
+	 * 
+	 * @param desired
+	 * @param output
+	 * @throws MisconfiguredBlockException
+	 */
+	public void transferInto (int[] desired, int[] output)
+			throws MisconfiguredBlockException;
 }
@@ -23,4 +23,14 @@ package pso.async.interfaces;
 public interface FitnessInterface
 {
 	public double calculateFitness (int... location);
+	
+	/**
+	 * Calculates the fitness of a number of locations at once. The indicies of
+	 * the locations are packed one after another into a single array, so the
+	 * indicies of location i start at i * dimension.
+	 * 
+	 * @param locations the packed indicies of each location
+	 * @param values filled with the fitness of each location
+	 */
+	public void calculateFitnessAll (int[] locations, double[] values);
 }
@@ -26,4 +26,15 @@ import pso.MisconfiguredBlockException;
 public interface NoiseModulator
 {
 	public int[] transfer (int... input) throws MisconfiguredBlockException;
+	
+	/**
+	 * Modulates noise into the input vector, writing the result into the
+	 * output vector without allocating. The output may be the input.
+	 * 
+	 * @param input
+	 * @param output
+	 * @throws MisconfiguredBlockException
+	 */
+	public void transferInto (int[] input, int[] output)
+			throws MisconfiguredBlockException;
 }
@@ -33,4 +33,15 @@ public interface Plant
 	public int[] getState ();
 	
 	public int[] transfer (int... input) throws MisconfiguredBlockException;
+	
+	/**
+	 * Advances the plant one timestep, writing the output vector into an
+	 * array owned by the caller without allocating
+	 * 
+	 * @param input
+	 * @param output
+	 * @throws MisconfiguredBlockException
+	 */
+	public void transferInto (int[] input, int[] output)
+			throws MisconfiguredBlockException;
 }
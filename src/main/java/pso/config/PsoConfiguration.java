@@ -21,6 +21,7 @@ import java.io.Serializable;
 import pso.DuplicateDetectionMode;
 import pso.TrackingMode;
 import pso.async.implementation.boundary.BoundaryTechnique;
+import pso.async.implementation.fitness.CacheEvictionPolicy;
 import pso.async.implementation.fitness.FitnessState;
 
 public class PsoConfiguration implements Serializable
@@ -61,6 +62,42 @@ public class PsoConfiguration implements Serializable
 	protected DuplicateDetectionMode	ddm					=
 																	DuplicateDetectionMode.NONE;
 	
+	// how the observed fitness values are stored
+	protected SearchDomainStorage		storage				=
+																	SearchDomainStorage.DENSE;
+	
+	// file kept for a mapped search domain, null for a temporary file
+	protected String					searchDomainFile	= null;
+	
+	// number of fitness values cached, 0 to disable the cache
+	protected int						fitnessCacheSize	= 0;
+	
+	protected CacheEvictionPolicy		fitnessCachePolicy	=
+																	CacheEvictionPolicy.LRU;
+	
+	// number of PSO iterations before the simulation exits, 0 for no limit
+	protected long						iterationLimit		= 0;
+	
+	// how the particle tasks are mapped onto threads
+	protected SchedulingMode			schedulingMode		=
+																	SchedulingMode.THREAD_PER_PARTICLE;
+	
+	// threads used by the pooled scheduling mode, 0 for one per processor
+	protected int						carrierThreads		= 0;
+	
+	// when the state is updated with the samples of the particles
+	protected SynchronizationMode		synchronizationMode	=
+																	SynchronizationMode.BARRIER;
+	
+	// particles that must report before a phase ends, 0 for all of them
+	protected int						quorum				= 0;
+	
+	// milliseconds before a phase ends without a quorum, 0 for no deadline
+	protected long						phaseDeadline		= 0;
+	
+	protected StragglerPolicy			stragglerPolicy		=
+																	StragglerPolicy.SKIP;
+	
 	/**
 	 * Gets the number of particles being used
 	 * 
@@ -257,4 +294,211 @@ public class PsoConfiguration implements Serializable
 		this.ddm = ddm;
 	}
 	
+	/**
+	 * Gets how the observed fitness values are stored
+	 * 
+	 * @return the storage
+	 */
+	public SearchDomainStorage getSearchDomainStorage ()
+	{
+		return storage;
+	}
+	
+	/**
+	 * Sets how the observed fitness values are stored
+	 * 
+	 * @param name the name of the storage to use
+	 */
+	public void setSearchDomainStorage (String name)
+	{
+		this.storage = SearchDomainStorage.getSearchDomainStorage(name);
+	}
+	
+	/**
+	 * @return the file kept for a mapped search domain, null if a temporary
+	 *         file is used
+	 */
+	public String getSearchDomainFile ()
+	{
+		return searchDomainFile;
+	}
+	
+	/**
+	 * @param searchDomainFile the file to keep a mapped search domain in, null
+	 *            to use a temporary file
+	 */
+	public void setSearchDomainFile (String searchDomainFile)
+	{
+		this.searchDomainFile = searchDomainFile;
+	}
+	
+	/**
+	 * @return the number of fitness values cached, 0 if the cache is disabled
+	 */
+	public int getFitnessCacheSize ()
+	{
+		return fitnessCacheSize;
+	}
+	
+	/**
+	 * @param fitnessCacheSize the number of fitness values to cache, 0 to
+	 *            disable the cache
+	 */
+	public void setFitnessCacheSize (int fitnessCacheSize)
+	{
+		this.fitnessCacheSize = fitnessCacheSize;
+	}
+	
+	/**
+	 * @return the eviction policy of the fitness cache
+	 */
+	public CacheEvictionPolicy getFitnessCachePolicy ()
+	{
+		return fitnessCachePolicy;
+	}
+	
+	/**
+	 * @param name the name of the eviction policy of the fitness cache
+	 */
+	public void setFitnessCachePolicy (String name)
+	{
+		this.fitnessCachePolicy =
+				CacheEvictionPolicy.getCacheEvictionPolicy(name);
+	}
+	
+	/**
+	 * @return the number of PSO iterations before the simulation exits, 0 if
+	 *         it runs until the search domain has been sampled
+	 */
+	public long getIterationLimit ()
+	{
+		return iterationLimit;
+	}
+	
+	/**
+	 * @param iterationLimit the number of PSO iterations before the simulation
+	 *            exits, 0 to run until the search domain has been sampled
+	 */
+	public void setIterationLimit (long iterationLimit)
+	{
+		this.iterationLimit = iterationLimit;
+	}
+	
+	/**
+	 * @return how the particle tasks are mapped onto threads
+	 */
+	public SchedulingMode getSchedulingMode ()
+	{
+		return schedulingMode;
+	}
+	
+	/**
+	 * @param name the name of the scheduling mode to use
+	 */
+	public void setSchedulingMode (String name)
+	{
+		this.schedulingMode = SchedulingMode.getSchedulingMode(name);
+	}
+	
+	/**
+	 * @return the number of threads used by the pooled scheduling mode, 0 for
+	 *         one per processor
+	 */
+	public int getCarrierThreads ()
+	{
+		return carrierThreads;
+	}
+	
+	/**
+	 * @param carrierThreads the number of threads used by the pooled
+	 *            scheduling mode, 0 for one per processor
+	 */
+	public void setCarrierThreads (int carrierThreads)
+	{
+		this.carrierThreads = carrierThreads;
+	}
+	
+	/**
+	 * @return when the state is updated with the samples of the particles
+	 */
+	public SynchronizationMode getSynchronizationMode ()
+	{
+		return synchronizationMode;
+	}
+	
+	/**
+	 * @param name the name of the synchronization mode to use
+	 */
+	public void setSynchronizationMode (String name)
+	{
+		this.synchronizationMode =
+				SynchronizationMode.getSynchronizationMode(name);
+	}
+	
+	/**
+	 * @return the number of particles that must report before a phase ends,
+	 *         0 if all of them must
+	 */
+	public int getQuorum ()
+	{
+		return quorum;
+	}
+	
+	/**
+	 * @param quorum the number of particles that must report before a phase
+	 *            ends, 0 if all of them must
+	 */
+	public void setQuorum (int quorum)
+	{
+		this.quorum = quorum;
+	}
+	
+	/**
+	 * @return the milliseconds a phase waits for its quorum before it ends
+	 *         with the particles that have reported, 0 if it waits forever
+	 */
+	public long getPhaseDeadline ()
+	{
+		return phaseDeadline;
+	}
+	
+	/**
+	 * @param phaseDeadline the milliseconds a phase waits for its quorum
+	 *            before it ends with the particles that have reported, 0 to
+	 *            wait forever
+	 */
+	public void setPhaseDeadline (long phaseDeadline)
+	{
+		this.phaseDeadline = phaseDeadline;
+	}
+	
+	/**
+	 * @return what happens to the particles which have not reported when a
+	 *         phase ends
+	 */
+	public StragglerPolicy getStragglerPolicy ()
+	{
+		return stragglerPolicy;
+	}
+	
+	/**
+	 * @param name the name of the straggler policy to use
+	 */
+	public void setStragglerPolicy (String name)
+	{
+		this.stragglerPolicy = StragglerPolicy.getStragglerPolicy(name);
+	}
+	
+	/**
+	 * Checks whether the phases of the barrier synchronization mode may end
+	 * before every particle has reported, because of a quorum or a deadline
+	 * 
+	 * @return
+	 */
+	public boolean isQuorumBarrier ()
+	{
+		return synchronizationMode == SynchronizationMode.BARRIER
+				&& ((quorum > 0 && quorum < numberOfParticles) || phaseDeadline > 0);
+	}
+	
 }
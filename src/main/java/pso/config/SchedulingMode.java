@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.config;
+
+/**
+ * Selects how the tasks of the particles are mapped onto threads
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public enum SchedulingMode
+{
+	/**
+	 * One thread per particle plus one for the state, synchronized by a
+	 * barrier
+	 */
+	THREAD_PER_PARTICLE("ThreadPerParticle"),
+	
+	/**
+	 * Each phase of the schedule is split into tasks run by a small
+	 * work-stealing pool, so the number of threads does not grow with the
+	 * number of particles
+	 */
+	POOLED("Pooled");
+	
+	private String	name	= null;
+	
+	private SchedulingMode (String name)
+	{
+		this.name = name;
+	}
+	
+	public String getName ()
+	{
+		return name;
+	}
+	
+	public static SchedulingMode getSchedulingMode (String name)
+	{
+		if (name.equalsIgnoreCase(POOLED.getName()))
+		{
+			return POOLED;
+		}
+		else
+		{
+			return THREAD_PER_PARTICLE;
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.config;
+
+/**
+ * Selects how the fitness values observed in the search domain are stored
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public enum SearchDomainStorage
+{
+	/**
+	 * One double for every point, on the heap
+	 */
+	DENSE("Dense"),
+	
+	/**
+	 * One double for every point, in a memory mapped file
+	 */
+	MAPPED("Mapped"),
+	
+	/**
+	 * Only the observed points, in a hash map
+	 */
+	SPARSE("Sparse");
+	
+	private String	name	= null;
+	
+	private SearchDomainStorage (String name)
+	{
+		this.name = name;
+	}
+	
+	public String getName ()
+	{
+		return name;
+	}
+	
+	public static SearchDomainStorage getSearchDomainStorage (String name)
+	{
+		if (name.equalsIgnoreCase(MAPPED.getName()))
+		{
+			return MAPPED;
+		}
+		else if (name.equalsIgnoreCase(SPARSE.getName()))
+		{
+			return SPARSE;
+		}
+		else
+		{
+			return DENSE;
+		}
+	}
+}
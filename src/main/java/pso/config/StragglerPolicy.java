@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.config;
+
+/**
+ * Selects what happens to the particles which have not reported when a
+ * quorum barrier lets the swarm move on to the next phase
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public enum StragglerPolicy
+{
+	/**
+	 * A particle that has not reported its value repeats its previous sample,
+	 * and its late value is discarded
+	 */
+	REUSE_LAST("ReuseLast"),
+	
+	/**
+	 * A particle that has not reported its value is left out of the iteration,
+	 * and its late value is discarded
+	 */
+	SKIP("Skip"),
+	
+	/**
+	 * A particle that has not reported its value is left out of the iteration,
+	 * and its late value is observed along with the next iteration's values
+	 */
+	FOLD_NEXT("FoldNext");
+	
+	private String	name	= null;
+	
+	private StragglerPolicy (String name)
+	{
+		this.name = name;
+	}
+	
+	public String getName ()
+	{
+		return name;
+	}
+	
+	public static StragglerPolicy getStragglerPolicy (String name)
+	{
+		if (name.equalsIgnoreCase(REUSE_LAST.getName()))
+		{
+			return REUSE_LAST;
+		}
+		else if (name.equalsIgnoreCase(FOLD_NEXT.getName()))
+		{
+			return FOLD_NEXT;
+		}
+		else
+		{
+			return SKIP;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.config;
+
+/**
+ * Selects when the state of the swarm is updated with the samples of the
+ * particles
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public enum SynchronizationMode
+{
+	/**
+	 * The state is updated once every particle has sampled, and each particle
+	 * waits for the others before moving on. An iteration is one sample from
+	 * every particle.
+	 */
+	BARRIER("Barrier"),
+	
+	/**
+	 * The state is updated as soon as a particle samples, and the particle
+	 * moves on without waiting for the others. An iteration is one sample from
+	 * any particle.
+	 */
+	ASYNCHRONOUS("Asynchronous");
+	
+	private String	name	= null;
+	
+	private SynchronizationMode (String name)
+	{
+		this.name = name;
+	}
+	
+	public String getName ()
+	{
+		return name;
+	}
+	
+	public static SynchronizationMode getSynchronizationMode (String name)
+	{
+		if (name.equalsIgnoreCase(ASYNCHRONOUS.getName()))
+		{
+			return ASYNCHRONOUS;
+		}
+		else
+		{
+			return BARRIER;
+		}
+	}
+}
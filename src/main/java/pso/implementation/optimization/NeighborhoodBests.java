@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) 2016 Michael Johnson
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ */
+package pso.implementation.optimization;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import pso.Sample;
+
+/**
+ * Keeps track of which member of each particle's neighborhood has the best
+ * personal best.
+ * 
+ * Personal bests only ever improve, or change to a value within the tolerance
+ * of the old one, so a neighborhood's best only has to be compared with the
+ * members whose personal best just changed. When a particle's personal best
+ * changes, only the neighborhoods it belongs to are visited, which costs one
+ * comparison per neighbor instead of a scan of the swarm. A member replaces
+ * the best of a neighborhood only if it is better by more than the
+ * tolerance, so the best member does not depend on the order of the updates.
+ * 
+ * The best members are updated with compare and set, so particles may update
+ * their neighborhoods concurrently in the asynchronous mode.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class NeighborhoodBests
+{
+	/**
+	 * The neighbors of each particle
+	 */
+	protected NeighborhoodIndex		index		= null;
+	
+	/**
+	 * The personal best of each particle, indexed by id
+	 */
+	protected List<SampleOptimizer>	personal	= null;
+	
+	/**
+	 * The id of the best member of each particle's neighborhood, -1 until a
+	 * member has a personal best
+	 */
+	protected AtomicIntegerArray	best		= null;
+	
+	/**
+	 * @param nh the neighbors of each particle
+	 * @param personalBests the personal best of each particle, indexed by id
+	 */
+	public NeighborhoodBests (NeighborhoodIndex nh,
+			List<SampleOptimizer> personalBests)
+	{
+		if (nh.getNumberOfParticles() != personalBests.size()) { throw new IllegalArgumentException(
+				"Neighborhoods and personal bests must have the same number of particles"); }
+		
+		index = nh;
+		personal = personalBests;
+		best = new AtomicIntegerArray(nh.getNumberOfParticles());
+		
+		for (int i = 0; i < best.length(); i++ )
+		{
+			best.set(i, -1);
+		}
+	}
+	
+	/**
+	 * Updates the neighborhoods of every particle whose personal best changed
+	 * 
+	 * @param improved whether the personal best of each particle changed,
+	 *            indexed by id
+	 */
+	public void update (boolean[] improved)
+	{
+		for (int id = 0; id < improved.length; id++ )
+		{
+			if (improved[id])
+			{
+				offer(id);
+			}
+		}
+	}
+	
+	/**
+	 * Updates the neighborhoods a particle belongs to after its personal best
+	 * changed
+	 * 
+	 * @param id
+	 */
+	public void offer (int id)
+	{
+		int[] neighbors = index.getNeighbors();
+		int end = index.getEnd(id);
+		
+		// the topologies are symmetric, so the particle belongs to the
+		// neighborhood of each of its neighbors
+		for (int n = index.getStart(id); n < end; n++ )
+		{
+			int neighborhood = neighbors[n];
+			
+			while (true)
+			{
+				int current = best.get(neighborhood);
+				
+				if (current == id || !isBetter(id, current))
+				{
+					break;
+				}
+				
+				if (best.compareAndSet(neighborhood, current, id))
+				{
+					break;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Checks whether the personal best of one particle is better than that of
+	 * another by more than the tolerance
+	 * 
+	 * @param id
+	 * @param other -1 if there is no other
+	 * @return
+	 */
+	protected boolean isBetter (int id, int other)
+	{
+		if (other < 0) { return true; }
+		
+		SampleOptimizer so = personal.get(id);
+		
+		double a = so.getOptimumValue();
+		double b = personal.get(other).getOptimumValue();
+		
+		if (Math.abs(a - b) < SampleOptimizer.TOLERANCE) { return false; }
+		
+		return so.isMaximization() ? a > b : a < b;
+	}
+	
+	/**
+	 * Gets the best personal best in a particle's neighborhood, the
+	 * particle's own personal best if no member has one yet
+	 * 
+	 * @param id
+	 * @return
+	 */
+	public Sample getBestSample (int id)
+	{
+		int member = best.get(id);
+		
+		return personal.get(member < 0 ? id : member).getOptimumSample();
+	}
+	
+	/**
+	 * Gets the id of the best member of a particle's neighborhood
+	 * 
+	 * @param id
+	 * @return -1 if no member has a personal best yet
+	 */
+	public int getBestMember (int id)
+	{
+		return best.get(id);
+	}
+	
+	/**
+	 * Gets the neighbors of each particle
+	 * 
+	 * @return
+	 */
+	public NeighborhoodIndex getIndex ()
+	{
+		return index;
+	}
+}
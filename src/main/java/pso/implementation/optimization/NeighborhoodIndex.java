@@ -0,0 +1,265 @@
+/**
+ * Copyright (C) 2016 Michael Johnson
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ */
+package pso.implementation.optimization;
+
+import java.util.Arrays;
+
+import pso.config.NeighborhoodTopology;
+
+/**
+ * The neighbors of every particle for a {@link NeighborhoodTopology}, stored
+ * compactly: the neighbors of particle i are
+ * <code>neighbors[offsets[i]]</code> up to but not including
+ * <code>neighbors[offsets[i + 1]]</code>, in ascending id order. A particle
+ * is always its own neighbor.
+ * 
+ * Every topology built here is symmetric, so the neighborhoods which contain
+ * a particle are exactly the neighborhoods of the particle's own neighbors.
+ * The global best topology is not built, since it would hold every particle
+ * once for every particle.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class NeighborhoodIndex
+{
+	/**
+	 * Where the neighbors of each particle start in
+	 * {@link NeighborhoodIndex#neighbors}, with one extra entry at the end
+	 */
+	protected int[]	offsets		= null;
+	
+	/**
+	 * The neighbors of all of the particles, one neighborhood after another
+	 */
+	protected int[]	neighbors	= null;
+	
+	/**
+	 * @param offsets
+	 * @param neighbors
+	 */
+	protected NeighborhoodIndex (int[] offsets, int[] neighbors)
+	{
+		this.offsets = offsets;
+		this.neighbors = neighbors;
+	}
+	
+	/**
+	 * Builds the neighbors of every particle for a topology
+	 * 
+	 * <ul>
+	 * <li>Personal best: only the particle itself</li>
+	 * <li>Circular: the particles on either side of it in a ring</li>
+	 * <li>Wheel: particle 0 is the hub and neighbors every other particle,
+	 * which only neighbor the hub</li>
+	 * <li>Von Neumann: the particles above, below, left and right of it on a
+	 * grid which wraps around at its edges</li>
+	 * </ul>
+	 * 
+	 * @param nt
+	 * @param numParticles
+	 * @return
+	 */
+	public static NeighborhoodIndex create (NeighborhoodTopology nt,
+			int numParticles)
+	{
+		if (numParticles < 1) { throw new IllegalArgumentException(
+				"There must be at least one particle: " + numParticles); }
+		
+		int n = numParticles;
+		
+		int[] offsets = new int[n + 1];
+		int[] neighbors = null;
+		
+		// the most neighbors any particle has
+		int[] candidates = new int[5];
+		int count = 0;
+		
+		switch (nt)
+		{
+			case PERSONAL_BEST:
+				neighbors = new int[n];
+				
+				for (int i = 0; i < n; i++ )
+				{
+					offsets[i] = i;
+					neighbors[i] = i;
+				}
+				
+				offsets[n] = n;
+				break;
+			case CIRCULAR:
+				neighbors = new int[3 * n];
+				
+				for (int i = 0; i < n; i++ )
+				{
+					offsets[i] = count;
+					candidates[0] = (i + n - 1) % n;
+					candidates[1] = i;
+					candidates[2] = (i + 1) % n;
+					count += copyDistinct(candidates, 3, neighbors, count);
+				}
+				
+				offsets[n] = count;
+				break;
+			case WHEEL:
+				neighbors = new int[3 * n];
+				
+				// the hub neighbors every particle
+				for (int i = 0; i < n; i++ )
+				{
+					neighbors[i] = i;
+				}
+				
+				count = n;
+				
+				for (int i = 1; i < n; i++ )
+				{
+					offsets[i] = count;
+					neighbors[count++ ] = 0;
+					neighbors[count++ ] = i;
+				}
+				
+				offsets[n] = count;
+				break;
+			case VON_NEUMANN:
+				neighbors = new int[5 * n];
+				
+				// the most square grid that holds every particle exactly
+				int rows = (int) Math.sqrt(n);
+				
+				while (n % rows != 0)
+				{
+					rows-- ;
+				}
+				
+				int columns = n / rows;
+				
+				for (int i = 0; i < n; i++ )
+				{
+					int row = i / columns;
+					int column = i % columns;
+					
+					offsets[i] = count;
+					candidates[0] =
+							((row + rows - 1) % rows) * columns + column;
+					candidates[1] = row * columns + (column + columns - 1)
+							% columns;
+					candidates[2] = i;
+					candidates[3] = row * columns + (column + 1) % columns;
+					candidates[4] = ((row + 1) % rows) * columns + column;
+					count += copyDistinct(candidates, 5, neighbors, count);
+				}
+				
+				offsets[n] = count;
+				break;
+			default:
+				throw new IllegalArgumentException(
+						"No neighbor index for topology: " + nt.getName());
+		}
+		
+		return new NeighborhoodIndex(offsets, Arrays.copyOf(neighbors,
+				offsets[n]));
+	}
+	
+	/**
+	 * Sorts the candidate neighbors and copies each distinct one, which
+	 * matters for swarms too small for the neighbors to all be different
+	 * 
+	 * @param candidates
+	 * @param length the number of candidates
+	 * @param neighbors
+	 * @param offset where to copy the neighbors to
+	 * @return the number of neighbors copied
+	 */
+	protected static int copyDistinct (int[] candidates, int length,
+			int[] neighbors, int offset)
+	{
+		Arrays.sort(candidates, 0, length);
+		
+		int copied = 0;
+		
+		for (int i = 0; i < length; i++ )
+		{
+			if (i > 0 && candidates[i] == candidates[i - 1])
+			{
+				continue;
+			}
+			
+			neighbors[offset + copied] = candidates[i];
+			copied++ ;
+		}
+		
+		return copied;
+	}
+	
+	/**
+	 * Gets the number of particles
+	 * 
+	 * @return
+	 */
+	public int getNumberOfParticles ()
+	{
+		return offsets.length - 1;
+	}
+	
+	/**
+	 * Gets where the neighbors of a particle start in
+	 * {@link NeighborhoodIndex#getNeighbors()}
+	 * 
+	 * @param id
+	 * @return
+	 */
+	public int getStart (int id)
+	{
+		return offsets[id];
+	}
+	
+	/**
+	 * Gets where the neighbors of a particle end in
+	 * {@link NeighborhoodIndex#getNeighbors()}, exclusive
+	 * 
+	 * @param id
+	 * @return
+	 */
+	public int getEnd (int id)
+	{
+		return offsets[id + 1];
+	}
+	
+	/**
+	 * Gets the neighbors of all of the particles. The array is not copied and
+	 * must not be modified.
+	 * 
+	 * @return
+	 */
+	public int[] getNeighbors ()
+	{
+		return neighbors;
+	}
+	
+	/**
+	 * Gets a copy of the neighbors of one particle
+	 * 
+	 * @param id
+	 * @return
+	 */
+	public int[] getNeighbors (int id)
+	{
+		return Arrays.copyOfRange(neighbors, offsets[id], offsets[id + 1]);
+	}
+}
@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2016 Michael Johnson
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ */
+package pso.implementation.optimization;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Updates the personal best of every particle with the particle's own
+ * sample and reduces the personal bests which changed to the single
+ * best one, which is then offered to the global {@link SampleOptimizer}.
+ * 
+ * The particles are split into fixed ranges of ids, so the ranges do not
+ * depend on how the work is scheduled. Within a range the ids are visited in
+ * ascending order, and when two ranges are combined the lower one is kept on
+ * a tie, so the result is the same however many threads take part. Each
+ * personal best draws tie breakers only from its own particle's stream, so
+ * the particles can be updated in parallel without changing the sequence of
+ * draws.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class OptimumReduction extends RecursiveTask<Integer>
+{
+	private static final long		serialVersionUID	= 1L;
+	
+	/**
+	 * Ranges of at most this many particles are updated without splitting,
+	 * swarms no larger than this are updated on the calling thread
+	 */
+	public static final int			THRESHOLD			= 512;
+	
+	/**
+	 * The personal best of each particle, indexed by id
+	 */
+	protected List<SampleOptimizer>	optimizers			= null;
+	
+	/**
+	 * The value of the newest sample of each particle, indexed by id
+	 */
+	protected double[]				values				= null;
+	
+	/**
+	 * The location of the newest sample of each particle, packed in id order
+	 */
+	protected int[]					locations			= null;
+	
+	/**
+	 * The number of entries in each location
+	 */
+	protected int					numDimensions		= 0;
+	
+	/**
+	 * Whether each particle has a new sample, indexed by id, null if every
+	 * particle does
+	 */
+	protected boolean[]				present				= null;
+	
+	/**
+	 * Set to whether the personal best of each particle changed, indexed by
+	 * id
+	 */
+	protected boolean[]				improved			= null;
+	
+	/**
+	 * The first id of the range
+	 */
+	protected int					from				= 0;
+	
+	/**
+	 * One past the last id of the range
+	 */
+	protected int					to					= 0;
+	
+	/**
+	 * @param optimizers
+	 * @param values
+	 * @param locations
+	 * @param numDimensions
+	 * @param present
+	 * @param improved
+	 * @param from
+	 * @param to
+	 */
+	public OptimumReduction (List<SampleOptimizer> optimizers,
+			double[] values, int[] locations, int numDimensions,
+			boolean[] present, boolean[] improved, int from, int to)
+	{
+		this.optimizers = optimizers;
+		this.values = values;
+		this.locations = locations;
+		this.numDimensions = numDimensions;
+		this.present = present;
+		this.improved = improved;
+		this.from = from;
+		this.to = to;
+	}
+	
+	/**
+	 * Updates the personal best of each particle with its newest sample and
+	 * finds the best of the personal bests which changed
+	 * 
+	 * @param optimizers the personal best of each particle, indexed by id
+	 * @param values the value of the newest sample of each particle, indexed
+	 *            by id
+	 * @param locations the location of the newest sample of each particle,
+	 *            packed in id order
+	 * @param present whether each particle has a new sample, indexed by id,
+	 *            null if every particle does
+	 * @param improved set to whether the personal best of each particle
+	 *            changed, indexed by id
+	 * @return the id of the best personal best which changed, -1 if none did
+	 */
+	public static int reduce (List<SampleOptimizer> optimizers,
+			double[] values, int[] locations, boolean[] present,
+			boolean[] improved)
+	{
+		int size = Math.min(optimizers.size(), values.length);
+		
+		OptimumReduction task =
+				new OptimumReduction(optimizers, values, locations,
+						locations.length / values.length, present, improved,
+						0, size);
+		
+		// small swarms are not worth handing to another thread
+		if (size <= THRESHOLD) { return task.compute(); }
+		
+		return ForkJoinPool.commonPool().invoke(task);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.concurrent.RecursiveTask#compute()
+	 */
+	@Override
+	protected Integer compute ()
+	{
+		if (to - from <= THRESHOLD) { return updateRange(); }
+		
+		int middle = (from + to) >>> 1;
+		
+		OptimumReduction lower =
+				new OptimumReduction(optimizers, values, locations,
+						numDimensions, present, improved, from, middle);
+		OptimumReduction upper =
+				new OptimumReduction(optimizers, values, locations,
+						numDimensions, present, improved, middle, to);
+		
+		lower.fork();
+		
+		int u = upper.compute();
+		int l = lower.join();
+		
+		return better(l, u);
+	}
+	
+	/**
+	 * Updates the personal bests of the range in ascending id order
+	 * 
+	 * @return the id of the best personal best which changed, -1 if none did
+	 */
+	protected int updateRange ()
+	{
+		int best = -1;
+		
+		for (int i = from; i < to; i++ )
+		{
+			// the location is only copied if it becomes the personal best
+			improved[i] = (present == null || present[i])
+					&& optimizers.get(i).updateOptimum(values[i], locations,
+							i * numDimensions, numDimensions);
+			
+			if (improved[i])
+			{
+				best = better(best, i);
+			}
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * Chooses between the personal bests of two particles, keeping the first
+	 * unless the second is better by more than the tolerance
+	 * 
+	 * @param first the lower id, or -1
+	 * @param second the higher id, or -1
+	 * @return
+	 */
+	protected int better (int first, int second)
+	{
+		if (first < 0) { return second; }
+		if (second < 0) { return first; }
+		
+		SampleOptimizer so = optimizers.get(first);
+		
+		double a = so.getOptimumValue();
+		double b = optimizers.get(second).getOptimumValue();
+		
+		if (Math.abs(a - b) < SampleOptimizer.TOLERANCE) { return first; }
+		
+		if (so.isMaximization()) { return b > a ? second : first; }
+		
+		return b < a ? second : first;
+	}
+}
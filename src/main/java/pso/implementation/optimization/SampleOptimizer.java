@@ -16,7 +16,9 @@
  */
 package pso.implementation.optimization;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import pso.Sample;
 import pso.interfaces.StateInterface;
@@ -30,7 +32,15 @@ public class SampleOptimizer implements OptimizationInterface
 {
 	protected static final double	TOLERANCE	= 1e-4;
 	
-	protected Sample				optimum		= null;
+	/**
+	 * Used by {@link SampleOptimizer#offerOptimum(Sample)} to replace the
+	 * optimum without locking
+	 */
+	private static final AtomicReferenceFieldUpdater<SampleOptimizer, Sample>	OPTIMUM	=
+			AtomicReferenceFieldUpdater.newUpdater(SampleOptimizer.class,
+					Sample.class, "optimum");
+	
+	protected volatile Sample		optimum		= null;
 	
 	protected boolean				maximizing	= false;
 	
@@ -177,4 +187,103 @@ public class SampleOptimizer implements OptimizationInterface
 		return updated;
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * pso.interfaces.optimization.OptimizationInterface#updateOptimum(pso.Sample
+	 * )
+	 */
+	@Override
+	public boolean updateOptimum (Sample sample)
+	{
+		if (!isImprovement(sample, optimum)) { return false; }
+		
+		optimum = sample;
+		
+		return true;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * pso.interfaces.optimization.OptimizationInterface#updateOptimum(double,
+	 * int[], int, int)
+	 */
+	@Override
+	public boolean updateOptimum (double value, int[] locations, int offset,
+			int length)
+	{
+		if (!isImprovement(value, optimum)) { return false; }
+		
+		optimum = new Sample(value, Arrays.copyOfRange(locations, offset,
+				offset + length));
+		
+		return true;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * pso.interfaces.optimization.OptimizationInterface#offerOptimum(pso.Sample
+	 * )
+	 */
+	@Override
+	public boolean offerOptimum (Sample sample)
+	{
+		while (true)
+		{
+			Sample current = optimum;
+			
+			if (!isImprovement(sample, current)) { return false; }
+			
+			// another thread may have replaced the optimum since it was read,
+			// in which case the comparison is made again
+			if (OPTIMUM.compareAndSet(this, current, sample)) { return true; }
+		}
+	}
+	
+	/**
+	 * Compares a {@link Sample} to the current optimum, breaking ties within
+	 * the tolerance randomly
+	 * 
+	 * @param sample
+	 * @param current
+	 * @return true if the sample should replace the current optimum
+	 */
+	protected boolean isImprovement (Sample sample, Sample current)
+	{
+		return isImprovement(sample.getSampleValue(), current);
+	}
+	
+	/**
+	 * Compares a sampled value to the current optimum, breaking ties within
+	 * the tolerance randomly
+	 * 
+	 * @param value
+	 * @param current
+	 * @return true if the value should replace the current optimum
+	 */
+	protected boolean isImprovement (double value, Sample current)
+	{
+		// first sample
+		if (current.getSampleLocation() == null) { return true; }
+		
+		// for flat landscapes
+		if (Math.abs(value - current.getSampleValue()) < TOLERANCE)
+		{
+			int tieBreaker =
+					id == -1 ? state.generateGlobalTieBreaker() : state
+							.generateTieBreaker(id);
+			
+			return tieBreaker > 0;
+		}
+		
+		if (maximizing) { return value > current.getSampleValue(); }
+		
+		return value < current.getSampleValue();
+	}
+	
 }
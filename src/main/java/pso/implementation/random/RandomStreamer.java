@@ -219,13 +219,17 @@ public class RandomStreamer
 	
 	/**
 	 * Generates a value for use by the {@link DuplicateDetector} to remove
-	 * duplicate locations
+	 * duplicate locations. Synchronized because every particle's thread draws
+	 * from the same generator.
 	 * 
 	 * @return
 	 */
 	public double generateRandomDuplicateRemovalValue ()
 	{
-		return duplicateRemovalGen.randomDouble();
+		synchronized (duplicateRemovalGen)
+		{
+			return duplicateRemovalGen.randomDouble();
+		}
 	}
 	
 	/**
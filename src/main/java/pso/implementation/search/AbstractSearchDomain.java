@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.implementation.search;
+
+import pso.interfaces.search.SearchDomainInterface;
+
+/**
+ * Holds the {@link SearchDomainParams} of a search domain and converts the
+ * indicies along each axis into a single linear index, which the subclasses
+ * use to address their backing store.
+ * 
+ * The linear index is calculated as described in {@link SearchDomain}, using
+ * the stride of each axis (the product of the sizes of the axes of lower
+ * ordinal), which are calculated once when the domain is created. The index is
+ * a long so that lattices with more than Integer.MAX_VALUE points can be
+ * addressed.
+ * 
+ * The subclasses only need to store and retrieve values by linear index; the
+ * single location and batch methods of {@link SearchDomainInterface} are
+ * implemented here on top of those.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public abstract class AbstractSearchDomain implements SearchDomainInterface
+{
+	/**
+	 * The parameters for this search domain
+	 */
+	protected SearchDomainParams	params		= null;
+	
+	/**
+	 * The number of dimensions of the search domain
+	 */
+	protected int					dimension	= -1;
+	
+	/**
+	 * The number of discrete points along each axis
+	 */
+	protected int[]					axisSizes	= null;
+	
+	/**
+	 * The weight of an index along each axis in the linear index
+	 */
+	protected long[]				strides		= null;
+	
+	/**
+	 * The total number of discrete points in the search domain
+	 */
+	protected long					size		= -1;
+	
+	/**
+	 * @param params
+	 * @throws IllegalArgumentException if the search domain has more points
+	 *             than can be indexed by a long
+	 */
+	public AbstractSearchDomain (SearchDomainParams params)
+	{
+		this.params = params;
+		
+		dimension = params.getSearchDomainDimension();
+		axisSizes = new int[dimension];
+		strides = new long[dimension];
+		
+		long product = 1;
+		
+		for (int i = 0; i < dimension; i++ )
+		{
+			axisSizes[i] = params.getAxisSize(i);
+			strides[i] = product;
+			
+			try
+			{
+				product = Math.multiplyExact(product, axisSizes[i]);
+			}
+			catch (ArithmeticException e)
+			{
+				throw new IllegalArgumentException(
+						"Search domain has too many points to index: " + params);
+			}
+		}
+		
+		size = product;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.SearchDomainInterface#getParams()
+	 */
+	@Override
+	public SearchDomainParams getParams ()
+	{
+		return params;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.SearchDomainInterface#observe(double, int[])
+	 */
+	@Override
+	public void observe (double value, int... domainIndicies)
+	{
+		observeIndex(calculateLinearIndex(domainIndicies), value);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.SearchDomainInterface#getValue(int[])
+	 */
+	@Override
+	public double getValue (int... domainIndicies)
+	{
+		return getValueIndex(calculateLinearIndex(domainIndicies));
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.SearchDomainInterface#isObserved(int[])
+	 */
+	@Override
+	public boolean isObserved (int... domainIndicies)
+	{
+		return isObservedIndex(calculateLinearIndex(domainIndicies));
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.SearchDomainInterface#observeAll(double[], int[])
+	 */
+	@Override
+	public void observeAll (double[] values, int[] locations)
+	{
+		checkPacked(locations, values.length);
+		
+		for (int i = 0, offset = 0; i < values.length; i++, offset +=
+				dimension)
+		{
+			observeIndex(calculateLinearIndex(locations, offset), values[i]);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.SearchDomainInterface#isObservedAll(int[], boolean[])
+	 */
+	@Override
+	public void isObservedAll (int[] locations, boolean[] observed)
+	{
+		checkPacked(locations, observed.length);
+		
+		for (int i = 0, offset = 0; i < observed.length; i++, offset +=
+				dimension)
+		{
+			observed[i] =
+					isObservedIndex(calculateLinearIndex(locations, offset));
+		}
+	}
+	
+	/**
+	 * @return the total number of discrete points in the search domain
+	 */
+	public long getSize ()
+	{
+		return size;
+	}
+	
+	// //////////// Storage methods
+	
+	/**
+	 * Stores the fitness value observed at a linear index
+	 * 
+	 * @param index
+	 * @param value
+	 */
+	protected abstract void observeIndex (long index, double value);
+	
+	/**
+	 * @param index
+	 * @return the fitness value observed at a linear index, Double.NaN if it
+	 *         has not been observed
+	 */
+	protected abstract double getValueIndex (long index);
+	
+	/**
+	 * @param index
+	 * @return true if the fitness value at a linear index has been observed
+	 */
+	protected abstract boolean isObservedIndex (long index);
+	
+	// //////////// Helper methods
+	
+	/**
+	 * Checks the format of the domain index provided against the specified
+	 * {@link SearchDomainParams}, and then converts the N-Dimensional index
+	 * into the linear index.
+	 * 
+	 * @param domainIndicies index in the N-D array
+	 * @return the linear index
+	 */
+	protected long calculateLinearIndex (int... domainIndicies)
+	{
+		if (domainIndicies.length != dimension) { throw new IllegalArgumentException(
+				"Domain index vector must be same length as number of dimensions in the Search Domain"); }
+		
+		return calculateLinearIndex(domainIndicies, 0);
+	}
+	
+	/**
+	 * Converts one of a number of packed N-Dimensional indicies into the
+	 * linear index, checking each index against the size of its axis
+	 * 
+	 * @param locations the packed indicies
+	 * @param offset where the indicies of the location start
+	 * @return the linear index
+	 */
+	protected long calculateLinearIndex (int[] locations, int offset)
+	{
+		long index = 0;
+		
+		for (int i = 0; i < dimension; i++ )
+		{
+			int axisIndex = locations[offset + i];
+			
+			if (axisIndex < 0) { throw new IllegalArgumentException(
+					"Domain index must be greater than zero"); }
+			
+			if (axisIndex >= axisSizes[i]) { throw new IllegalArgumentException(
+					"Domain index must be less than the size of the domain axis"); }
+			
+			index += axisIndex * strides[i];
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * Checks that a packed array holds the indicies of the number of locations
+	 * expected
+	 * 
+	 * @param locations
+	 * @param count
+	 */
+	protected void checkPacked (int[] locations, int count)
+	{
+		if (locations.length != count * dimension) { throw new IllegalArgumentException(
+				"Packed domain indicies must hold " + dimension
+						+ " indicies for each of the " + count + " locations"); }
+	}
+}
@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.implementation.search;
+
+/**
+ * A {@link UnitIntervalMapper} for search domains which are too large to
+ * enumerate. Rather than storing every unobserved location, only the observed
+ * locations are stored (as linear indicies in a {@link LongHashSet}), so memory
+ * use grows with the number of samples taken instead of the size of the
+ * lattice.
+ * 
+ * An unobserved location is selected by rejection sampling: the value on the
+ * unit interval is scaled onto the lattice, and if that location has already
+ * been observed further candidates are drawn from a generator seeded by the
+ * value. The selection is therefore reproducible for a given sequence of
+ * values. If every candidate is rejected the lattice is scanned forward from
+ * the first candidate, which only happens once almost all of the lattice has
+ * been observed.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class LazyUnitIntervalMapper extends UnitIntervalMapper
+{
+	/**
+	 * How many random candidates are tried before scanning the lattice
+	 */
+	protected static final int	MAX_REJECTIONS	= 64;
+	
+	/**
+	 * The number of locations in the lattice
+	 */
+	protected long				total			= -1;
+	
+	/**
+	 * The linear indicies of the observed locations
+	 */
+	protected LongHashSet		observed		= null;
+	
+	public LazyUnitIntervalMapper (int axisSize, int numDimensions)
+	{
+		super(axisSize, numDimensions, false);
+		
+		total = countLocations(axisSize, numDimensions);
+		observed = new LongHashSet();
+	}
+	
+	/**
+	 * @param axisSize
+	 * @param numDimensions
+	 * @return axisSize^numDimensions
+	 * @throws IllegalArgumentException if the lattice has more locations than
+	 *             can be indexed by a long
+	 */
+	public static long countLocations (int axisSize, int numDimensions)
+	{
+		long count = 1;
+		
+		try
+		{
+			for (int i = 0; i < numDimensions; i++ )
+			{
+				count = Math.multiplyExact(count, axisSize);
+			}
+		}
+		catch (ArithmeticException e)
+		{
+			throw new IllegalArgumentException(
+					"Search domain has too many locations to index: "
+							+ axisSize + "^" + numDimensions);
+		}
+		
+		return count;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.implementation.search.UnitIntervalMapper#addLocation(int[])
+	 */
+	@Override
+	public synchronized void addLocation (int[] loc)
+	{
+		long linear = toLongIndex(loc);
+		
+		if (linear < 0) { return; }
+		
+		observed.remove(linear);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.implementation.search.UnitIntervalMapper#removeLocation(int[])
+	 */
+	@Override
+	public synchronized void removeLocation (int[] loc)
+	{
+		long linear = toLongIndex(loc);
+		
+		if (linear < 0) { return; }
+		
+		observed.add(linear);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.implementation.search.UnitIntervalMapper#retrieveByValue(double)
+	 */
+	@Override
+	public synchronized Mapping retrieveByValue (double d)
+	{
+		if (d < 0.0 || d > 1.0) { throw new IllegalArgumentException(
+				"Value must be between 0 and 1"); }
+		
+		if (observed.size() >= total) { return null; }
+		
+		long first = (long) (d * total);
+		
+		// d == 1.0 selects the last one
+		if (first >= total)
+		{
+			first = total - 1;
+		}
+		
+		long linear = first;
+		
+		if (observed.contains(linear))
+		{
+			long seed = Double.doubleToLongBits(d);
+			
+			for (int i = 0; i < MAX_REJECTIONS && observed.contains(linear); i++ )
+			{
+				seed += 0x9E3779B97F4A7C15L;
+				linear = (mix(seed) >>> 1) % total;
+			}
+			
+			if (observed.contains(linear))
+			{
+				linear = first;
+				
+				while (observed.contains(linear))
+				{
+					linear = (linear + 1) % total;
+				}
+			}
+		}
+		
+		observed.add(linear);
+		
+		Mapping m = new Mapping();
+		m.indicies = toIndicies(linear);
+		
+		return m;
+	}
+	
+	/**
+	 * @return the number of unobserved locations, or Integer.MAX_VALUE if
+	 *         there are more than can be counted by an int
+	 */
+	@Override
+	public synchronized int getSize ()
+	{
+		return (int) Math.min(getRemaining(), Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * @return the number of unobserved locations
+	 */
+	public synchronized long getRemaining ()
+	{
+		return total - observed.size();
+	}
+	
+	/**
+	 * Converts the indicies along each axis into the linear index
+	 * 
+	 * @param loc
+	 * @return the linear index, -1 if the location is not in the search domain
+	 */
+	protected long toLongIndex (int[] loc)
+	{
+		if (loc == null || loc.length != numDimensions) { return -1; }
+		
+		long linear = 0;
+		
+		for (int i = numDimensions - 1; i >= 0; i-- )
+		{
+			if (loc[i] < 0 || loc[i] >= axisSize) { return -1; }
+			
+			linear = linear * axisSize + loc[i];
+		}
+		
+		return linear;
+	}
+	
+	/**
+	 * Converts a linear index back into the indicies along each axis
+	 * 
+	 * @param linear
+	 * @return
+	 */
+	protected int[] toIndicies (long linear)
+	{
+		int[] loc = new int[numDimensions];
+		
+		for (int i = 0; i < numDimensions; i++ )
+		{
+			loc[i] = (int) (linear % axisSize);
+			linear /= axisSize;
+		}
+		
+		return loc;
+	}
+	
+	/**
+	 * The SplitMix64 finalizer
+	 * 
+	 * @param z
+	 * @return
+	 */
+	protected static long mix (long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
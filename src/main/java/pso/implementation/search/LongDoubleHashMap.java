@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.implementation.search;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from non-negative long keys to double values
+ * which avoids boxing. Collisions are resolved with linear probing.
+ * 
+ * This class is not thread safe.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class LongDoubleHashMap
+{
+	protected static final long	EMPTY			= -1L;
+	
+	protected static final int	MIN_CAPACITY	= 16;
+	
+	protected long[]			keys			= null;
+	
+	protected double[]			values			= null;
+	
+	protected int				size			= 0;
+	
+	protected int				mask			= 0;
+	
+	public LongDoubleHashMap ()
+	{
+		this(MIN_CAPACITY);
+	}
+	
+	/**
+	 * @param expected the number of entries expected to be stored
+	 */
+	public LongDoubleHashMap (int expected)
+	{
+		int capacity = MIN_CAPACITY;
+		
+		// keep the load factor at or below one half
+		while (capacity < expected * 2L)
+		{
+			capacity <<= 1;
+		}
+		
+		allocate(capacity);
+	}
+	
+	/**
+	 * @param key a non-negative value
+	 * @param value
+	 */
+	public void put (long key, double value)
+	{
+		if (key < 0) { throw new IllegalArgumentException(
+				"Key must be non-negative: " + key); }
+		
+		int slot = find(key);
+		
+		values[slot] = value;
+		
+		if (keys[slot] == key) { return; }
+		
+		keys[slot] = key;
+		size++ ;
+		
+		if (size * 2 > keys.length)
+		{
+			allocate(keys.length << 1);
+		}
+	}
+	
+	/**
+	 * @param key
+	 * @param missing the value returned when the key is not in the map
+	 * @return
+	 */
+	public double get (long key, double missing)
+	{
+		if (key < 0) { return missing; }
+		
+		int slot = find(key);
+		
+		return keys[slot] == key ? values[slot] : missing;
+	}
+	
+	public boolean containsKey (long key)
+	{
+		if (key < 0) { return false; }
+		
+		return keys[find(key)] == key;
+	}
+	
+	public int size ()
+	{
+		return size;
+	}
+	
+	/**
+	 * @param key
+	 * @return the slot holding the key, or the empty slot where it would be
+	 *         inserted
+	 */
+	protected int find (long key)
+	{
+		int slot = hash(key);
+		
+		while (keys[slot] != EMPTY && keys[slot] != key)
+		{
+			slot = (slot + 1) & mask;
+		}
+		
+		return slot;
+	}
+	
+	protected int hash (long key)
+	{
+		// fibonacci hashing spreads sequential lattice indicies apart
+		long h = key * 0x9E3779B97F4A7C15L;
+		
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+	
+	protected void allocate (int capacity)
+	{
+		long[] oldKeys = keys;
+		double[] oldValues = values;
+		
+		keys = new long[capacity];
+		values = new double[capacity];
+		Arrays.fill(keys, EMPTY);
+		mask = capacity - 1;
+		
+		if (oldKeys == null) { return; }
+		
+		for (int i = 0; i < oldKeys.length; i++ )
+		{
+			if (oldKeys[i] != EMPTY)
+			{
+				int slot = find(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
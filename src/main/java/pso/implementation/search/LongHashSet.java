@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.implementation.search;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash set of non-negative long values which avoids boxing.
+ * Collisions are resolved with linear probing, and removal shifts the
+ * following entries back so no tombstones are needed.
+ * 
+ * This class is not thread safe.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class LongHashSet
+{
+	protected static final long	EMPTY		= -1L;
+	
+	protected static final int	MIN_CAPACITY	= 16;
+	
+	protected long[]			keys		= null;
+	
+	protected int				size		= 0;
+	
+	protected int				mask		= 0;
+	
+	public LongHashSet ()
+	{
+		this(MIN_CAPACITY);
+	}
+	
+	/**
+	 * @param expected the number of values expected to be stored
+	 */
+	public LongHashSet (int expected)
+	{
+		int capacity = MIN_CAPACITY;
+		
+		// keep the load factor at or below one half
+		while (capacity < expected * 2L)
+		{
+			capacity <<= 1;
+		}
+		
+		allocate(capacity);
+	}
+	
+	/**
+	 * @param key a non-negative value
+	 * @return true if the value was not already in the set
+	 */
+	public boolean add (long key)
+	{
+		if (key < 0) { throw new IllegalArgumentException(
+				"Key must be non-negative: " + key); }
+		
+		int slot = find(key);
+		
+		if (keys[slot] == key) { return false; }
+		
+		keys[slot] = key;
+		size++ ;
+		
+		if (size * 2 > keys.length)
+		{
+			allocate(keys.length << 1);
+		}
+		
+		return true;
+	}
+	
+	public boolean contains (long key)
+	{
+		if (key < 0) { return false; }
+		
+		return keys[find(key)] == key;
+	}
+	
+	/**
+	 * @param key
+	 * @return true if the value was in the set
+	 */
+	public boolean remove (long key)
+	{
+		if (key < 0) { return false; }
+		
+		int slot = find(key);
+		
+		if (keys[slot] != key) { return false; }
+		
+		keys[slot] = EMPTY;
+		size-- ;
+		
+		// move back any entries which probed past the removed slot
+		int next = (slot + 1) & mask;
+		
+		while (keys[next] != EMPTY)
+		{
+			long k = keys[next];
+			int home = hash(k);
+			
+			// distance from the home slot to each of the two slots
+			if (((next - home) & mask) >= ((next - slot) & mask))
+			{
+				keys[slot] = k;
+				keys[next] = EMPTY;
+				slot = next;
+			}
+			
+			next = (next + 1) & mask;
+		}
+		
+		return true;
+	}
+	
+	public int size ()
+	{
+		return size;
+	}
+	
+	public void clear ()
+	{
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+	}
+	
+	/**
+	 * @param key
+	 * @return the slot holding the key, or the empty slot where it would be
+	 *         inserted
+	 */
+	protected int find (long key)
+	{
+		int slot = hash(key);
+		
+		while (keys[slot] != EMPTY && keys[slot] != key)
+		{
+			slot = (slot + 1) & mask;
+		}
+		
+		return slot;
+	}
+	
+	protected int hash (long key)
+	{
+		// fibonacci hashing spreads sequential lattice indicies apart
+		long h = key * 0x9E3779B97F4A7C15L;
+		
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+	
+	protected void allocate (int capacity)
+	{
+		long[] old = keys;
+		
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		mask = capacity - 1;
+		size = 0;
+		
+		if (old == null) { return; }
+		
+		for (int i = 0; i < old.length; i++ )
+		{
+			if (old[i] != EMPTY)
+			{
+				keys[find(old[i])] = old[i];
+				size++ ;
+			}
+		}
+	}
+}
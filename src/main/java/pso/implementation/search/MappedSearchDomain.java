@@ -0,0 +1,424 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.implementation.search;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import log.ApplicationLogger;
+
+/**
+ * A search domain stored in a memory mapped file rather than on the heap, so
+ * that the lattice may be larger than the heap, and so that the observed
+ * values can be kept after a run for later analysis.
+ * 
+ * Whether each point has been observed is stored in a packed bitmap separate
+ * from the fitness values, so {@link MappedSearchDomain#isObserved(int...)}
+ * only reads a single bit. The values of unobserved points are never read, so
+ * the file does not need to be filled when it is created; on most file systems
+ * it is created sparse and only the pages which are written take up space.
+ * 
+ * The file is laid out as:<br>
+ * <br>
+ * header: magic number, version, dimension, then the minimum, maximum and size
+ * of each axis<br>
+ * bitmap: one bit per point, packed into longs<br>
+ * values: one double per point<br>
+ * <br>
+ * with each section starting on a page boundary. Since a single
+ * {@link MappedByteBuffer} is limited to Integer.MAX_VALUE bytes, each section
+ * is mapped as a number of fixed size chunks.
+ * 
+ * {@link MappedSearchDomain#observeIndex(long, double)} is synchronized so that
+ * the bitmap words are updated atomically, reads are not.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class MappedSearchDomain extends AbstractSearchDomain implements
+		Closeable
+{
+	protected static final long			MAGIC			= 0x5053_4F44_4F4D_4E31L;
+	
+	protected static final int			VERSION			= 1;
+	
+	protected static final int			PAGE_SIZE		= 4096;
+	
+	/**
+	 * log2 of the number of bytes in each mapped chunk
+	 */
+	protected static final int			CHUNK_SHIFT		= 30;
+	
+	protected static final long			CHUNK_MASK		= (1L << CHUNK_SHIFT) - 1;
+	
+	/**
+	 * The file backing this search domain
+	 */
+	protected Path						file			= null;
+	
+	/**
+	 * Whether the file should be deleted when this search domain is closed
+	 */
+	protected boolean					deleteOnClose	= false;
+	
+	protected FileChannel				channel			= null;
+	
+	/**
+	 * The chunks of the bitmap section
+	 */
+	protected MappedByteBuffer[]		bitmap			= null;
+	
+	/**
+	 * The chunks of the values section
+	 */
+	protected MappedByteBuffer[]		values			= null;
+	
+	/**
+	 * Creates a search domain backed by a temporary file, which is deleted when
+	 * the search domain is closed
+	 * 
+	 * @param params
+	 */
+	public MappedSearchDomain (SearchDomainParams params)
+	{
+		this(params, createTempFile(), true);
+	}
+	
+	/**
+	 * Creates a search domain backed by the file provided, which is kept when
+	 * the search domain is closed. If the file already holds a search domain
+	 * with the same {@link SearchDomainParams} its observations are kept,
+	 * otherwise it is overwritten.
+	 * 
+	 * @param params
+	 * @param file
+	 */
+	public MappedSearchDomain (SearchDomainParams params, Path file)
+	{
+		this(params, file, false);
+	}
+	
+	protected MappedSearchDomain (SearchDomainParams params, Path file,
+			boolean deleteOnClose)
+	{
+		super(params);
+		
+		this.file = file;
+		this.deleteOnClose = deleteOnClose;
+		
+		try
+		{
+			channel =
+					FileChannel.open(file, StandardOpenOption.CREATE,
+							StandardOpenOption.READ, StandardOpenOption.WRITE);
+			
+			long headerBytes = headerBytes(dimension);
+			
+			if (!headerMatches())
+			{
+				channel.truncate(0);
+				channel.write(writeHeader(params), 0);
+			}
+			
+			long bitmapBytes = roundToPage( ( (size + 63) >>> 6) << 3);
+			long valueBytes = size << 3;
+			
+			bitmap = map(headerBytes, bitmapBytes);
+			values = map(headerBytes + bitmapBytes, valueBytes);
+		}
+		catch (IOException e)
+		{
+			ApplicationLogger.getInstance().logException(e);
+			close();
+			throw new IllegalStateException("Unable to map search domain file: "
+					+ file, e);
+		}
+	}
+	
+	/**
+	 * Opens a search domain kept from a previous run
+	 * 
+	 * @param file
+	 * @return
+	 * @throws IOException if the file does not hold a search domain
+	 */
+	public static MappedSearchDomain open (Path file) throws IOException
+	{
+		SearchDomainParams params = new SearchDomainParams();
+		
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			ByteBuffer buf = ByteBuffer.allocate(16).order(ByteOrder.nativeOrder());
+			ch.read(buf, 0);
+			buf.flip();
+			
+			if (buf.remaining() < 16 || buf.getLong() != MAGIC
+					|| buf.getInt() != VERSION) { throw new IOException(
+					"Not a search domain file: " + file); }
+			
+			int dim = buf.getInt();
+			
+			buf = ByteBuffer.allocate(24 * dim).order(ByteOrder.nativeOrder());
+			ch.read(buf, 16);
+			buf.flip();
+			
+			for (int i = 0; i < dim; i++ )
+			{
+				double min = buf.getDouble();
+				double max = buf.getDouble();
+				int axisSize = (int) buf.getLong();
+				
+				params.addAxis(min, max, axisSize);
+			}
+		}
+		
+		return new MappedSearchDomain(params, file);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.SearchDomainInterface#observeAll(double[], int[])
+	 */
+	@Override
+	public synchronized void observeAll (double[] values, int[] locations)
+	{
+		super.observeAll(values, locations);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * pso.implementation.search.AbstractSearchDomain#observeIndex(long,
+	 * double)
+	 */
+	@Override
+	protected synchronized void observeIndex (long index, double value)
+	{
+		long valueOffset = index << 3;
+		values[(int) (valueOffset >>> CHUNK_SHIFT)].putDouble(
+				(int) (valueOffset & CHUNK_MASK), value);
+		
+		long wordOffset = (index >>> 6) << 3;
+		MappedByteBuffer chunk = bitmap[(int) (wordOffset >>> CHUNK_SHIFT)];
+		int pos = (int) (wordOffset & CHUNK_MASK);
+		
+		chunk.putLong(pos, chunk.getLong(pos) | (1L << (index & 63)));
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * pso.implementation.search.AbstractSearchDomain#getValueIndex(long)
+	 */
+	@Override
+	protected double getValueIndex (long index)
+	{
+		if (!isObservedIndex(index)) { return Double.NaN; }
+		
+		long valueOffset = index << 3;
+		
+		return values[(int) (valueOffset >>> CHUNK_SHIFT)]
+				.getDouble((int) (valueOffset & CHUNK_MASK));
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * pso.implementation.search.AbstractSearchDomain#isObservedIndex(long)
+	 */
+	@Override
+	protected boolean isObservedIndex (long index)
+	{
+		long wordOffset = (index >>> 6) << 3;
+		
+		long word =
+				bitmap[(int) (wordOffset >>> CHUNK_SHIFT)]
+						.getLong((int) (wordOffset & CHUNK_MASK));
+		
+		return (word & (1L << (index & 63))) != 0;
+	}
+	
+	/**
+	 * @return the file backing this search domain
+	 */
+	public Path getFile ()
+	{
+		return file;
+	}
+	
+	/**
+	 * Writes any changes to the backing file
+	 */
+	public synchronized void flush ()
+	{
+		force(bitmap);
+		force(values);
+	}
+	
+	/**
+	 * Writes any changes to the backing file and releases it. The file is
+	 * deleted if this search domain was created with a temporary file.
+	 */
+	@Override
+	public synchronized void close ()
+	{
+		if (channel == null) { return; }
+		
+		if (!deleteOnClose)
+		{
+			flush();
+		}
+		
+		bitmap = null;
+		values = null;
+		
+		try
+		{
+			channel.close();
+			
+			if (deleteOnClose)
+			{
+				Files.deleteIfExists(file);
+			}
+		}
+		catch (IOException e)
+		{
+			ApplicationLogger.getInstance().logException(e);
+		}
+		
+		channel = null;
+	}
+	
+	// //////////// Helper methods
+	
+	/**
+	 * Maps a section of the file as a number of chunks
+	 * 
+	 * @param offset the start of the section in the file
+	 * @param length the length of the section in bytes
+	 * @return
+	 * @throws IOException
+	 */
+	protected MappedByteBuffer[] map (long offset, long length)
+			throws IOException
+	{
+		int count = (int) ( (length + CHUNK_MASK) >>> CHUNK_SHIFT);
+		
+		MappedByteBuffer[] chunks = new MappedByteBuffer[Math.max(count, 1)];
+		
+		for (int i = 0; i < chunks.length; i++ )
+		{
+			long start = (long) i << CHUNK_SHIFT;
+			long chunkLength = Math.min(length - start, CHUNK_MASK + 1);
+			
+			chunks[i] =
+					channel.map(MapMode.READ_WRITE, offset + start,
+							Math.max(chunkLength, 0));
+			chunks[i].order(ByteOrder.nativeOrder());
+		}
+		
+		return chunks;
+	}
+	
+	/**
+	 * @return true if the file already holds a search domain with the same
+	 *         params
+	 * @throws IOException
+	 */
+	protected boolean headerMatches () throws IOException
+	{
+		ByteBuffer expected = writeHeader(params);
+		
+		if (channel.size() < expected.remaining()) { return false; }
+		
+		ByteBuffer actual = ByteBuffer.allocate(expected.remaining());
+		channel.read(actual, 0);
+		actual.flip();
+		
+		return actual.equals(expected);
+	}
+	
+	protected static ByteBuffer writeHeader (SearchDomainParams params)
+	{
+		int dim = params.getSearchDomainDimension();
+		
+		ByteBuffer buf =
+				ByteBuffer.allocate(16 + 24 * dim).order(ByteOrder.nativeOrder());
+		
+		buf.putLong(MAGIC);
+		buf.putInt(VERSION);
+		buf.putInt(dim);
+		
+		for (int i = 0; i < dim; i++ )
+		{
+			buf.putDouble(params.getAxisMin(i));
+			buf.putDouble(params.getAxisMax(i));
+			buf.putLong(params.getAxisSize(i));
+		}
+		
+		buf.flip();
+		
+		return buf;
+	}
+	
+	protected static long headerBytes (int dim)
+	{
+		return roundToPage(16 + 24L * dim);
+	}
+	
+	protected static long roundToPage (long bytes)
+	{
+		return (bytes + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+	}
+	
+	protected static void force (MappedByteBuffer[] chunks)
+	{
+		if (chunks == null) { return; }
+		
+		for (MappedByteBuffer chunk : chunks)
+		{
+			chunk.force();
+		}
+	}
+	
+	protected static Path createTempFile ()
+	{
+		try
+		{
+			Path tmp = Files.createTempFile("searchdomain", ".bin");
+			tmp.toFile().deleteOnExit();
+			return tmp;
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException(
+					"Unable to create search domain file", e);
+		}
+	}
+}
@@ -18,10 +18,6 @@ package pso.implementation.search;
 
 import java.util.Arrays;
 
-import log.ApplicationLogger;
-
-import pso.interfaces.search.SearchDomainInterface;
-
 /**
  * This class exists to manage the discretization of the search domain.
  * 
@@ -68,17 +64,12 @@ import pso.interfaces.search.SearchDomainInterface;
  * @author Mike Johnson
  * 
  */
-public class SearchDomain implements SearchDomainInterface
+public class SearchDomain extends AbstractSearchDomain
 {
 	/**
 	 * The N-dimensional array for each point in the Search Domain
 	 */
-	protected double[]				domain	= null;
-	
-	/**
-	 * The parameters for this search domain
-	 */
-	protected SearchDomainParams	params	= null;
+	protected double[]	domain	= null;
 	
 	/**
 	 * Constructs a new {@link SearchDomain} object, allocating the
@@ -92,87 +83,53 @@ public class SearchDomain implements SearchDomainInterface
 	 */
 	public SearchDomain (SearchDomainParams params)
 	{
-		this.params = params;
-		
-		int dim = params.getSearchDomainDimension();
+		super(params);
 		
-		// calculate how many values will be in the search domain
-		int product = 1;
-		
-		for (int i = 0; i < dim; i++ )
-		{
-			product *= params.getAxisSize(i);
-		}
+		if (size > Integer.MAX_VALUE - 8) { throw new IllegalArgumentException(
+				"Search domain has too many points for an array, use sparse or mapped storage: "
+						+ params); }
 		
 		// create the array and initialize it to an unknown fitness value
-		domain = new double[product];
-		
-		for (int i = 0; i < product; i++ )
-		{
-			domain[i] = Double.NaN;
-		}
-	}
-	
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see pso.SearchDomainInterface#observe(double,
-	 * int[])
-	 */
-	@Override
-	public void observe (double value, int... domainIndicies)
-	{
-		int val = calculateArrayIndex(domainIndicies);
+		domain = new double[(int) size];
 		
-//		 System.out.println(val);
-//		 System.out.println("len: " + domain.length);
-		domain[val] = value;
+		Arrays.fill(domain, Double.NaN);
 	}
 	
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see pso.SearchDomainInterface#getValue(int[])
+	 * @see
+	 * pso.implementation.search.AbstractSearchDomain#observeIndex(long,
+	 * double)
 	 */
 	@Override
-	public double getValue (int... domainIndicies)
+	protected void observeIndex (long index, double value)
 	{
-		return domain[calculateArrayIndex(domainIndicies)];
+		domain[(int) index] = value;
 	}
 	
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see pso.SearchDomainInterface#getParams()
+	 * @see
+	 * pso.implementation.search.AbstractSearchDomain#getValueIndex(long)
 	 */
 	@Override
-	public SearchDomainParams getParams ()
+	protected double getValueIndex (long index)
 	{
-		return params;
+		return domain[(int) index];
 	}
 	
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see pso.SearchDomainInterface#isObserved(int[])
+	 * @see
+	 * pso.implementation.search.AbstractSearchDomain#isObservedIndex(long)
 	 */
 	@Override
-	public boolean isObserved (int... domainIndicies)
+	protected boolean isObservedIndex (long index)
 	{
-		ApplicationLogger.getInstance().logDebug("Calculating Array Index for location: " + Arrays.toString(domainIndicies));
-		int val = calculateArrayIndex(domainIndicies);
-		
-		ApplicationLogger.getInstance().logDebug("INDEX: " + val);
-		ApplicationLogger.getInstance().logDebug("LIMIT: " + domain.length);
-		
-		if (Double.isNaN(domain[val]))
-		{
-			return false;
-		}
-		else
-		{
-			return true;
-		}
+		return !Double.isNaN(domain[(int) index]);
 	}
 	
 	// //////////// Helper methods
@@ -187,60 +144,7 @@ public class SearchDomain implements SearchDomainInterface
 	 */
 	protected int calculateArrayIndex (int... domainIndicies)
 	{
-		if (domainIndicies.length != params.axisSize.size()) { throw new IllegalArgumentException(
-				"Domain index vector must be same length as number of dimensions in the Search Domain"); }
-		
-		for (int i = 0; i < domainIndicies.length; i++ )
-		{
-			if (domainIndicies[i] < 0) { throw new IllegalArgumentException(
-					"Domain index must be greater than zero"); }
-			
-			if (domainIndicies[i] > params.axisSize.get(i)) { throw new IllegalArgumentException(
-					"Domain index must be less than the size of the domain axis"); }
-		}
-		
-		return calculateIndexWeightRecursive(domainIndicies.length - 1,
-				domainIndicies);
-	}
-	
-	/**
-	 * Recursively calculates the weight of a given axis' index and adds it to
-	 * the weight of the indicies of the other axes, eventually returning the
-	 * 1-D index
-	 * 
-	 * @param index current index
-	 * @param domainIndicies
-	 * @return
-	 */
-	protected int calculateIndexWeightRecursive (int index,
-			int... domainIndicies)
-	{
-		// base case
-		if (index == 0)
-		{
-			// System.out.println("DimSize: 1");
-			// System.out.println("index: " + domainIndicies[0]);
-			return domainIndicies[0];
-		}
-		else
-		{
-			// calculate the number of points along this dimension, multiply it
-			// by the number of points along the dimensions of lower ordinal
-			int dimSize = 1;
-			
-			for (int j = index; j > 0; j-- )
-			{
-				dimSize *= params.getAxisSize(j - 1);
-			}
-			
-			// multiply it by the current dimension's index to get this
-			// dimension's weight
-			int dimIndex = domainIndicies[index] * dimSize;
-			
-			// add and recurse
-			return dimIndex
-					+ calculateIndexWeightRecursive(index - 1, domainIndicies);
-		}
+		return (int) calculateLinearIndex(domainIndicies);
 	}
 	
 	/*
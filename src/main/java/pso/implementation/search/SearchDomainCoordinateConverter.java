@@ -44,12 +44,14 @@ import org.jfree.data.statistics.SimpleHistogramBin;
  */
 public class SearchDomainCoordinateConverter
 {
-	protected double[]									axisDeltas	= null;
+	protected double[]									axisDeltas		= null;
 	
-	protected Map<Integer, List<SimpleHistogramBin>>	bins		=
+	protected double[]									axisMinimums	= null;
+	
+	protected Map<Integer, List<SimpleHistogramBin>>	bins			=
 																			new HashMap<Integer, List<SimpleHistogramBin>>();
 	
-	protected SearchDomainParams						params		= null;
+	protected SearchDomainParams						params			= null;
 	
 	public SearchDomainCoordinateConverter (SearchDomainParams params)
 	{
@@ -61,6 +63,7 @@ public class SearchDomainCoordinateConverter
 		// and
 		// what the delta is between each value in the domain
 		axisDeltas = new double[dim];
+		axisMinimums = new double[dim];
 		
 		for (int i = 0; i < dim; i++ )
 		{
@@ -71,6 +74,7 @@ public class SearchDomainCoordinateConverter
 			axisDeltas[i] =
 					(params.getAxisMax(i) - params.getAxisMin(i))
 							/ (params.getAxisSize(i));
+			axisMinimums[i] = params.getAxisMin(i);
 			// System.out.println("delta: " + axisDeltas[i]);
 			
 			List<SimpleHistogramBin> axisBins =
@@ -177,14 +181,43 @@ public class SearchDomainCoordinateConverter
 	{
 		double[] coordinates = new double[indicies.length];
 		
-		for (int i = 0; i < indicies.length; i++ )
-		{
-			coordinates[i] = indicies[i] * axisDeltas[i] + params.getAxisMin(i);
-		}
+		findDomainCoordinates(indicies, 0, coordinates);
 		
 		return coordinates;
 	}
 	
+	/**
+	 * Converts an index along one axis into the coordinate along that axis
+	 * 
+	 * @param axis
+	 * @param index
+	 * @return
+	 */
+	public double findDomainCoordinate (int axis, int index)
+	{
+		return index * axisDeltas[axis] + axisMinimums[axis];
+	}
+	
+	/**
+	 * Converts the indicies of a location into its coordinates without
+	 * allocating, for when the indicies of a number of locations are packed
+	 * into one array
+	 * 
+	 * @param indicies the packed indicies
+	 * @param offset where the indicies of the location start
+	 * @param coordinates filled with the coordinates of the location, one for
+	 *            each axis
+	 */
+	public void findDomainCoordinates (int[] indicies, int offset,
+			double[] coordinates)
+	{
+		for (int i = 0; i < coordinates.length; i++ )
+		{
+			coordinates[i] =
+					indicies[offset + i] * axisDeltas[i] + axisMinimums[i];
+		}
+	}
+	
 	public double[] quantize (double... coordinates)
 	{
 		int[] domainIndicies = findDomainIndicies(coordinates);
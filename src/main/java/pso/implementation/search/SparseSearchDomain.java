@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Michael Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ *******************************************************************************/
+package pso.implementation.search;
+
+/**
+ * A search domain which only stores the points that have been observed, in a
+ * {@link LongDoubleHashMap} keyed by the linear index of each point. Most runs
+ * only observe a small fraction of the lattice, so memory use grows with the
+ * number of samples taken instead of the size of the search domain.
+ * 
+ * Every method is synchronized since the map may be resized while it is being
+ * read by another particle's thread.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class SparseSearchDomain extends AbstractSearchDomain
+{
+	/**
+	 * The observed fitness values
+	 */
+	protected LongDoubleHashMap	observed	= new LongDoubleHashMap();
+	
+	public SparseSearchDomain (SearchDomainParams params)
+	{
+		super(params);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.SearchDomainInterface#observeAll(double[], int[])
+	 */
+	@Override
+	public synchronized void observeAll (double[] values, int[] locations)
+	{
+		super.observeAll(values, locations);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see pso.SearchDomainInterface#isObservedAll(int[], boolean[])
+	 */
+	@Override
+	public synchronized void isObservedAll (int[] locations, boolean[] observed)
+	{
+		super.isObservedAll(locations, observed);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * pso.implementation.search.AbstractSearchDomain#observeIndex(long,
+	 * double)
+	 */
+	@Override
+	protected synchronized void observeIndex (long index, double value)
+	{
+		observed.put(index, value);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * pso.implementation.search.AbstractSearchDomain#getValueIndex(long)
+	 */
+	@Override
+	protected synchronized double getValueIndex (long index)
+	{
+		return observed.get(index, Double.NaN);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * pso.implementation.search.AbstractSearchDomain#isObservedIndex(long)
+	 */
+	@Override
+	protected synchronized boolean isObservedIndex (long index)
+	{
+		return observed.containsKey(index);
+	}
+	
+	/**
+	 * @return the number of points which have been observed
+	 */
+	public synchronized int getObservedCount ()
+	{
+		return observed.size();
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString ()
+	{
+		return String.format("SparseSearchDomain [params=%s, observed=%d]",
+				params, getObservedCount());
+	}
+}
@@ -1,14 +1,31 @@
 package pso.implementation.search;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-
-import log.ApplicationLogger;
 
+/**
+ * This class keeps track of every location in the search domain which has not
+ * yet been observed, and allows one of them to be selected using a value on the
+ * unit interval [0, 1].
+ * 
+ * Each location is identified by its linear index, where the least significant
+ * axis index increments fastest (the same ordering used by
+ * {@link SearchDomain}). The unobserved linear indicies are stored densely in
+ * an array, and a second array maps each linear index to its position in the
+ * dense array (or -1 if it has been removed). This allows selection, removal
+ * and re-insertion of a location to all happen in constant time: a removed
+ * location is swapped with the last unobserved location and the size is
+ * decremented.
+ * 
+ * The order of the dense array only depends on the order of the calls made on
+ * this object, so the sequence of selected locations is reproducible for a
+ * given sequence of selection values.
+ * 
+ * All of the public methods are synchronized so that the mapper can be shared
+ * between the threads of each of the particles.
+ * 
+ * @author Mike Johnson
+ * 
+ */
 public class UnitIntervalMapper
 {
 	
@@ -87,183 +104,251 @@ public class UnitIntervalMapper
 		}
 	}
 	
-	protected ArrayList<Mapping>	mappings	= new ArrayList<Mapping>();
+	/**
+	 * Search domains with more locations than this are mapped by
+	 * {@link LazyUnitIntervalMapper}, which never enumerates the lattice
+	 */
+	public static final long	MATERIALIZE_THRESHOLD	= 1L << 24;
 	
 	/**
-	 * How many mappings in the list have been set to null
+	 * The number of discrete points along each axis
 	 */
-	protected int					nullCount	= 0;
+	protected int	axisSize		= -1;
 	
-	public UnitIntervalMapper (int axisSize, int numDimensions)
+	/**
+	 * The number of axes in the search domain
+	 */
+	protected int	numDimensions	= -1;
+	
+	/**
+	 * The linear indicies of the unobserved locations. Only the first
+	 * {@link UnitIntervalMapper#size} entries are valid.
+	 */
+	protected int[]	unobserved		= null;
+	
+	/**
+	 * Maps a linear index to its position in
+	 * {@link UnitIntervalMapper#unobserved}, -1 if it has been observed
+	 */
+	protected int[]	positions		= null;
+	
+	/**
+	 * How many unobserved locations remain
+	 */
+	protected int	size			= 0;
+	
+	/**
+	 * Creates the mapper best suited to the size of the search domain: a
+	 * {@link UnitIntervalMapper} when the lattice has at most
+	 * {@link UnitIntervalMapper#MATERIALIZE_THRESHOLD} locations, otherwise a
+	 * {@link LazyUnitIntervalMapper}
+	 * 
+	 * @param axisSize
+	 * @param numDimensions
+	 * @return
+	 */
+	public static UnitIntervalMapper create (int axisSize, int numDimensions)
 	{
-		generateMappings(axisSize, numDimensions, new ArrayList<Integer>());
+		long total = LazyUnitIntervalMapper.countLocations(axisSize,
+				numDimensions);
 		
-		Collections.sort(mappings);
+		if (total <= MATERIALIZE_THRESHOLD) { return new UnitIntervalMapper(
+				axisSize, numDimensions); }
 		
-		// for (Mapping m : mappings)
-		// {
-		// ApplicationLogger.getInstance().logDebug(m.toString());
-		// }
+		return new LazyUnitIntervalMapper(axisSize, numDimensions);
 	}
 	
-	protected void generateMappings (int axisSize, int numDimensions,
-			List<Integer> indices)
+	public UnitIntervalMapper (int axisSize, int numDimensions)
+	{
+		this(axisSize, numDimensions, true);
+	}
+	
+	/**
+	 * @param axisSize
+	 * @param numDimensions
+	 * @param materialize whether every location should be stored in the dense
+	 *            array, subclasses which track the unobserved locations some
+	 *            other way pass false
+	 */
+	protected UnitIntervalMapper (int axisSize, int numDimensions,
+			boolean materialize)
 	{
-		if (numDimensions == 0)
+		if (axisSize < 1 || numDimensions < 1) { throw new IllegalArgumentException(
+				"Search domain must have at least one location"); }
+		
+		this.axisSize = axisSize;
+		this.numDimensions = numDimensions;
+		
+		if (!materialize) { return; }
+		
+		long total = 1;
+		
+		for (int i = 0; i < numDimensions; i++ )
 		{
-			Mapping m = new Mapping();
-			
-			// System.out.println("Creating mapping of size: " +
-			// indices.size());
-			
-			m.indicies = new int[indices.size()];
-			
-			int count = 0;
-			for (Integer i : indices)
-			{
-				m.indicies[count] = i;
-				count++ ;
-			}
-			
-			// System.out.println("Mapping: " + Arrays.toString(m.indicies));
-			
-			mappings.add(m);
+			total *= axisSize;
 			
-			return;
+			if (total > Integer.MAX_VALUE - 8) { throw new IllegalArgumentException(
+					"Search domain has too many locations to map: "
+							+ axisSize + "^" + numDimensions); }
 		}
-		else
+		
+		size = (int) total;
+		
+		unobserved = new int[size];
+		positions = new int[size];
+		
+		// every location starts out unobserved
+		for (int i = 0; i < size; i++ )
 		{
-			for (int i = 0; i < axisSize; i++ )
-			{
-				// System.out.println("Adding " + i + " to index");
-				indices.add(i);
-				
-				// System.out.println("Calling down with indicies: "
-				// + indices.toString());
-				generateMappings(axisSize, numDimensions - 1, indices);
-				
-				// NB: remove(int), not remove(Object)
-				indices.remove(indices.size() - 1);
-				// System.out.println("Removing " + i);
-			}
-			
+			unobserved[i] = i;
+			positions[i] = i;
 		}
 	}
 	
-	public void addLocation (int[] loc)
+	/**
+	 * Adds a location back into the set of unobserved locations. Does nothing
+	 * if the location is already unobserved or lies outside the search domain.
+	 * 
+	 * @param loc
+	 */
+	public synchronized void addLocation (int[] loc)
 	{
-		Mapping m = new Mapping ();
+		int linear = toLinearIndex(loc);
 		
-		m.indicies = loc;
+		if (linear < 0 || positions[linear] != -1) { return; }
 		
-		if(!mappings.contains(m))
-		{
-			mappings.add(m);
-		}
+		unobserved[size] = linear;
+		positions[linear] = size;
+		size++ ;
 	}
 	
-	public void removeLocation (int[] loc)
+	/**
+	 * Removes a location from the set of unobserved locations. Does nothing if
+	 * the location has already been removed or lies outside the search domain.
+	 * 
+	 * @param loc
+	 */
+	public synchronized void removeLocation (int[] loc)
 	{
-		Mapping m = new Mapping();
+		int linear = toLinearIndex(loc);
+		
+		if (linear < 0 || positions[linear] == -1) { return; }
 		
-		m.indicies = loc;
-		mappings.remove(m);
-//		int index = mappings.indexOf(m);
-//		//System.out.println("Location: " + m.toString() + " : indx: " + index);
-//		
-//		if(index == -1)
-//		{
-//			return;
-//		}
-//		
-//		mappings.set(index, null);
-//		nullCount++ ;
+		removeAt(positions[linear]);
 	}
 	
-	public Mapping retrieveByValue (double d)
+	/**
+	 * Removes a number of locations from the set of unobserved locations. The
+	 * indicies of the locations are packed one after another into a single
+	 * array.
+	 * 
+	 * @param locations
+	 */
+	public synchronized void removeLocations (int[] locations)
+	{
+		int[] loc = new int[numDimensions];
+		
+		for (int offset = 0; offset + numDimensions <= locations.length; offset +=
+				numDimensions)
+		{
+			System.arraycopy(locations, offset, loc, 0, numDimensions);
+			removeLocation(loc);
+		}
+	}
+	
+	/**
+	 * Selects an unobserved location using a value on the unit interval and
+	 * removes it from the set of unobserved locations.
+	 * 
+	 * @param d a value in [0, 1]
+	 * @return the selected location, null if every location has been observed
+	 */
+	public synchronized Mapping retrieveByValue (double d)
 	{
 		if (d < 0.0 || d > 1.0) { throw new IllegalArgumentException(
 				"Value must be between 0 and 1"); }
 		
-		if (mappings.isEmpty()) { return null; }
-		
-		if (isNull()) { return null; }
-		
-		double number = mappings.size() - nullCount;
+		if (size == 0) { return null; }
 		
-		double delta = 1 / number;
+		int position = (int) (d * size);
 		
-		double sum = 0.0;
-		
-		Mapping m = null;
-		
-		for (int i = 0; i < number; i++ )
+		// d == 1.0 selects the last one
+		if (position >= size)
 		{
-			// System.out.println("i: " + i);
-			// System.out.println("Sum: " + sum);
-			
-			if (sum > d)
-			{
-				int j = getMappedIndex(i);
-				
-				// remove the (i-1)th mapping
-				 m = mappings.remove(i - 1);
-//				m = mappings.set(j, null);
-//				nullCount++ ;
-				
-				break;
-			}
-			
-			sum += delta;
+			position = size - 1;
 		}
 		
-		// the last one if it's still null
-		if (m == null)
-		{
-			 m = mappings.remove(mappings.size() - 1);
-//			m = mappings.set(getMappedIndex(mappings.size() - nullCount - 1),
-//					null);
-//			nullCount++ ;
-		}
+		int linear = unobserved[position];
+		
+		removeAt(position);
+		
+		Mapping m = new Mapping();
+		m.indicies = toIndicies(linear);
 		
 		return m;
 	}
 	
-	public int getSize ()
+	public synchronized int getSize ()
 	{
-		return mappings.size() - nullCount;
+		return size;
 	}
 	
-	protected boolean isNull ()
+	/**
+	 * Removes the entry at a position in the dense array by moving the last
+	 * entry into its place
+	 * 
+	 * @param position
+	 */
+	protected void removeAt (int position)
+	{
+		int linear = unobserved[position];
+		int last = unobserved[size - 1];
+		
+		unobserved[position] = last;
+		positions[last] = position;
+		
+		positions[linear] = -1;
+		size-- ;
+	}
+	
+	/**
+	 * Converts the indicies along each axis into the linear index
+	 * 
+	 * @param loc
+	 * @return the linear index, -1 if the location is not in the search domain
+	 */
+	protected int toLinearIndex (int[] loc)
 	{
-		for (Mapping map : mappings)
+		if (loc == null || loc.length != numDimensions) { return -1; }
+		
+		int linear = 0;
+		
+		for (int i = numDimensions - 1; i >= 0; i-- )
 		{
-			if (map != null) { return false; }
+			if (loc[i] < 0 || loc[i] >= axisSize) { return -1; }
+			
+			linear = linear * axisSize + loc[i];
 		}
 		
-		return true;
+		return linear;
 	}
 	
-	protected int getMappedIndex (int unitIntervalIndex)
+	/**
+	 * Converts a linear index back into the indicies along each axis
+	 * 
+	 * @param linear
+	 * @return
+	 */
+	protected int[] toIndicies (int linear)
 	{
-		int i = 0;
-		int judge = 0;
+		int[] loc = new int[numDimensions];
 		
-		for (Mapping map : mappings)
+		for (int i = 0; i < numDimensions; i++ )
 		{
-			if (map != null)
-			{
-				if (judge == unitIntervalIndex)
-				{
-					break;
-				}
-				
-				judge++ ;
-			}
-			
-			i++ ;
+			loc[i] = linear % axisSize;
+			linear /= axisSize;
 		}
 		
-		return i;
+		return loc;
 	}
 }
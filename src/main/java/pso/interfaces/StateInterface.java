@@ -54,6 +54,16 @@ public interface StateInterface
 	 */
 	public int[] generateRandomVectorPrimary ();
 	
+	/**
+	 * Generates a random position from the same source as
+	 * {@link StateInterface#generateRandomVectorPrimary()}, writing it into an
+	 * existing array instead of allocating one
+	 * 
+	 * @param vec an array with one entry per dimension
+	 * @return the given array
+	 */
+	public int[] generateRandomVectorPrimary (int[] vec);
+	
 	/**
 	 * Generates a random position (location) within the {@link SearchDomain}
 	 * 
@@ -97,6 +107,17 @@ public interface StateInterface
 	
 	public int[] getBestLocation (int id);
 	
+	/**
+	 * Copies the personal best location of a particle into an existing array
+	 * 
+	 * @param id
+	 * @param dest
+	 * @param offset the index in the array the location is copied to
+	 * @return false if the particle does not have a personal best yet, in
+	 *         which case nothing is copied
+	 */
+	public boolean copyBestLocation (int id, int[] dest, int offset);
+	
 	public double getBestValue (int id);
 	
 	public int[] getGlobalBestLocation ();
@@ -130,4 +151,29 @@ public interface StateInterface
 	 * @param evts
 	 */
 	public void updateInitialValues (List<Event> evts);
+	
+	/**
+	 * Writes one particle's initial value as soon as its
+	 * {@link InitializationEvent} is received, used by the asynchronous mode
+	 * 
+	 * @param evt
+	 */
+	public void updateInitialValue (InitializationEvent evt);
+	
+	/**
+	 * Updates the search domain and the optima with one particle's sample as
+	 * soon as its {@link ValueEvent} is received, used by the asynchronous
+	 * mode. Each call counts as one iteration.
+	 * 
+	 * @param evt
+	 */
+	public void updateSampleValue (ValueEvent evt);
+	
+	/**
+	 * Writes one particle's next sample location as soon as its
+	 * {@link LocationEvent} is received, used by the asynchronous mode
+	 * 
+	 * @param evt
+	 */
+	public void updateSampleLocation (LocationEvent evt);
 }
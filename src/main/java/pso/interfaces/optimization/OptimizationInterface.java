@@ -67,4 +67,39 @@ public interface OptimizationInterface
 	 * @return true if the optimum was updated
 	 */
 	public boolean updateOptimum (List<Sample> samples);
+	
+	/**
+	 * Compares a single {@link Sample} to the optimum and makes it the optimum
+	 * if it has a better value. Used for the personal best of a particle,
+	 * which only ever sees the particle's own {@link Sample}s.
+	 * 
+	 * @param sample
+	 * @return true if the optimum was updated
+	 */
+	public boolean updateOptimum (Sample sample);
+	
+	/**
+	 * Compares a value sampled at a location packed in a larger array to the
+	 * optimum, as {@link OptimizationInterface#updateOptimum(Sample)} does.
+	 * The location is only copied when it becomes the optimum.
+	 * 
+	 * @param value
+	 * @param locations the array holding the location
+	 * @param offset the index of the first entry of the location
+	 * @param length the number of entries in the location
+	 * @return true if the optimum was updated
+	 */
+	public boolean updateOptimum (double value, int[] locations, int offset,
+			int length);
+	
+	/**
+	 * Compares a single {@link Sample} to the optimum and makes it the optimum
+	 * if it has a better value. Unlike
+	 * {@link OptimizationInterface#updateOptimum(List)} this may be called by
+	 * several threads at once.
+	 * 
+	 * @param sample
+	 * @return true if the optimum was updated
+	 */
+	public boolean offerOptimum (Sample sample);
 }
@@ -59,4 +59,26 @@ public interface SearchDomainInterface
 	 * @return true if the index has been observed, false otherwise
 	 */
 	public boolean isObserved (int... domainIndicies);
+	
+	/**
+	 * Stores a fitness value for each of a number of locations. The locations
+	 * are packed one after another into a single array, so the indicies of
+	 * location i along each axis start at i * dimension.
+	 * 
+	 * @param values the fitness value of each location
+	 * @param locations the packed indicies of each location, values.length *
+	 *            dimension entries
+	 */
+	public void observeAll (double[] values, int[] locations);
+	
+	/**
+	 * Determines whether the fitness function has been observed at each of a
+	 * number of locations, packed as described in
+	 * {@link SearchDomainInterface#observeAll(double[], int[])}
+	 * 
+	 * @param locations the packed indicies of each location
+	 * @param observed set to true for each location which has been observed,
+	 *            false otherwise
+	 */
+	public void isObservedAll (int[] locations, boolean[] observed);
 }
@@ -16,7 +16,7 @@
  */
 package task.maker;
 
-import java.util.concurrent.ArrayBlockingQueue;
+import java.io.IOException;
 
 import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.RealMatrix;
@@ -25,18 +25,25 @@ import pso.StateRepository;
 import pso.async.implementation.PSOPositionTracker;
 import pso.async.implementation.boundary.BoundaryHandler;
 import pso.async.implementation.duplicate.DuplicateDetector;
+import pso.async.implementation.fitness.CachingFitnessCalculator;
+import pso.async.implementation.fitness.FitFunction;
 import pso.async.implementation.fitness.FitnessCalculator;
+import pso.async.implementation.fitness.FitnessState;
+import pso.async.implementation.fitness.HeightmapRegistry;
 import pso.async.implementation.plants.LinearPlantParameters;
+import pso.async.interfaces.FitnessInterface;
 import pso.config.PsoConfiguration;
+import pso.implementation.search.SearchDomainParams;
 import pso.interfaces.StateInterface;
 
-import event.Event;
+import event.EventChannels;
 import event.EventDispatcher;
 import event.eventprocessors.InitializationEventProcessor;
 import event.eventprocessors.LocationEventProcessor;
 import event.eventprocessors.ValueEventProcessor;
 import task.TaskSchedule;
 import task.tasks.WaitForEventTask;
+import task.tasks.WaitForQuorumTask;
 import task.tasks.init.ParticleInitializationTask;
 import task.tasks.location.LocationTask;
 import task.tasks.value.ValueTask;
@@ -47,19 +54,39 @@ import task.tasks.value.ValueTask;
  */
 public class TaskScheduleMaker
 {
+	/**
+	 * The fitness calculation shared by every worker of the simulation, so
+	 * that lookup tables and cached fitness values are only built once
+	 */
+	protected FitnessInterface	fitness	= null;
 	
 	/**
-	 * 
+	 * The state of the simulation the schedules are made for
+	 */
+	protected StateInterface	state	= null;
+	
+	/**
+	 * Makes schedules for the simulation held by the shared
+	 * {@link StateRepository}
 	 */
 	public TaskScheduleMaker ()
 	{
+		this(StateRepository.getInstance());
+	}
+	
+	/**
+	 * @param s the state of the simulation the schedules are made for
+	 */
+	public TaskScheduleMaker (StateInterface s)
+	{
+		state = s;
 	}
 	
 	public TaskSchedule makePSOWorkerSchedule (int id, EventDispatcher ed,
 			PsoConfiguration conf)
 	{
 		TaskSchedule ts = new TaskSchedule();
-		StateInterface s = StateRepository.getInstance();
+		StateInterface s = state;
 		
 		RealMatrix K =
 				MatrixUtils.createRealIdentityMatrix(conf
@@ -72,12 +99,9 @@ public class TaskScheduleMaker
 						conf.getNumberOfDimensions(), conf.getM(),
 						conf.getNoiseGain());
 		
-		FitnessCalculator fit =
-				new FitnessCalculator(StateRepository.getInstance()
-						.getSearchDomainParameters(), conf.getFitnessState()
-						.getFitnessFunction());
+		FitnessInterface fit = getFitness(conf);
 		
-		PSOPositionTracker fcs = new PSOPositionTracker(K, params);
+		PSOPositionTracker fcs = new PSOPositionTracker(K, params, s);
 		
 		BoundaryHandler bh =
 				new BoundaryHandler(id, conf.getFitnessState().getAxisSize(),
@@ -95,19 +119,113 @@ public class TaskScheduleMaker
 		return ts;
 	}
 	
+	/**
+	 * Creates the fitness calculation for the first worker, wrapping it in a
+	 * {@link CachingFitnessCalculator} if the configuration enables the cache
+	 * 
+	 * @param conf
+	 * @return
+	 */
+	protected FitnessInterface getFitness (PsoConfiguration conf)
+	{
+		if (fitness == null)
+		{
+			SearchDomainParams params = state.getSearchDomain().getParams();
+			
+			FitnessState fs = conf.getFitnessState();
+			
+			if (fs.getFitnessFunction() == FitFunction.MOLA
+					&& fs.getMOLAData() != null)
+			{
+				fitness = new FitnessCalculator(params, fs.getMOLAData());
+			}
+			else if (fs.getFitnessFunction() == FitFunction.MOLA
+					&& fs.getMolaFile() != null && !fs.getMolaFile().isEmpty())
+			{
+				try
+				{
+					fitness =
+							new FitnessCalculator(params,
+									HeightmapRegistry.open(fs.getMolaFile()));
+				}
+				catch (IOException e)
+				{
+					throw new IllegalStateException(
+							"Unable to open MOLA heightmap: " + fs.getMolaFile(),
+							e);
+				}
+			}
+			else
+			{
+				fitness = new FitnessCalculator(params, fs.getFitnessFunction());
+			}
+			
+			if (conf.getFitnessCacheSize() > 0)
+			{
+				fitness =
+						new CachingFitnessCalculator(fitness, params,
+								conf.getFitnessCacheSize(),
+								conf.getFitnessCachePolicy(),
+								state.getSearchDomain());
+			}
+		}
+		
+		return fitness;
+	}
+	
 	public TaskSchedule makePSOStateSchedule (int numRobots,
-			ArrayBlockingQueue<Event> eventQueue)
+			EventChannels eventChannels)
 	{
 		TaskSchedule ts = new TaskSchedule();
-		StateInterface s = StateRepository.getInstance();
+		StateInterface s = state;
 		
 		ts.setInitialTask(new WaitForEventTask(
-				new InitializationEventProcessor(numRobots, s), eventQueue));
+				new InitializationEventProcessor(numRobots, s), eventChannels));
 		
 		ts.appendTask(new WaitForEventTask(
-				new ValueEventProcessor(numRobots, s), eventQueue));
+				new ValueEventProcessor(numRobots, s), eventChannels));
 		ts.appendTask(new WaitForEventTask(new LocationEventProcessor(
-				numRobots, s), eventQueue));
+				numRobots, s), eventChannels));
+		
+		return ts;
+	}
+	
+	/**
+	 * Makes the schedule of the state thread, which ends the value and
+	 * location phases once the configured quorum of robots has reported or
+	 * the phase deadline has passed, if the configuration uses a quorum
+	 * barrier
+	 * 
+	 * @param numRobots
+	 * @param eventChannels
+	 * @param conf
+	 * @return
+	 */
+	public TaskSchedule makePSOStateSchedule (int numRobots,
+			EventChannels eventChannels, PsoConfiguration conf)
+	{
+		if (!conf.isQuorumBarrier()) { return makePSOStateSchedule(numRobots,
+				eventChannels); }
+		
+		TaskSchedule ts = new TaskSchedule();
+		StateInterface s = state;
+		
+		int quorum = conf.getQuorum() > 0 ? conf.getQuorum() : numRobots;
+		
+		// every robot has to be initialized, so there is no quorum
+		ts.setInitialTask(new WaitForEventTask(
+				new InitializationEventProcessor(numRobots, s), eventChannels));
+		
+		ValueEventProcessor vep = new ValueEventProcessor(numRobots, s);
+		vep.setQuorum(quorum);
+		
+		LocationEventProcessor lep = new LocationEventProcessor(numRobots, s);
+		lep.setQuorum(quorum);
+		
+		ts.appendTask(new WaitForQuorumTask(vep, eventChannels, conf
+				.getPhaseDeadline()));
+		ts.appendTask(new WaitForQuorumTask(lep, eventChannels, conf
+				.getPhaseDeadline()));
 		
 		return ts;
 	}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2016 Michael Johnson
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ */
+package task.runner;
+
+import pso.interfaces.StateInterface;
+
+import event.Event;
+import event.EventDispatcher;
+import event.events.InitializationEvent;
+import event.events.LocationEvent;
+import event.events.ValueEvent;
+
+/**
+ * Applies the {@link Event}s of a particle to the state on the particle's own
+ * thread, as soon as they are dispatched. This takes the place of the
+ * {@link StateTaskThread} in the asynchronous mode, so no particle ever waits
+ * for the others.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class AsynchronousStateListener
+{
+	protected StateInterface	state	= null;
+	
+	public AsynchronousStateListener (StateInterface s)
+	{
+		state = s;
+	}
+	
+	/**
+	 * Registers a handler with the dispatcher of a particle for each type of
+	 * {@link Event} which updates the state
+	 * 
+	 * @param ed
+	 */
+	public void listenTo (EventDispatcher ed)
+	{
+		ed.addHandler(InitializationEvent.class, state::updateInitialValue);
+		ed.addHandler(ValueEvent.class, state::updateSampleValue);
+		ed.addHandler(LocationEvent.class, state::updateSampleLocation);
+	}
+}
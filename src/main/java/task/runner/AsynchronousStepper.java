@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2016 Michael Johnson
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ */
+package task.runner;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+import pso.interfaces.StateInterface;
+
+/**
+ * Runs the {@link task.TaskSchedule}s of the particles on a
+ * {@link ForkJoinPool} in the asynchronous mode. Each task runs one step of
+ * one particle and then resubmits the particle's next step, so no particle
+ * waits for the others. The pool must be in FIFO (async) mode so that the
+ * resubmitted step goes behind the steps of the other particles.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class AsynchronousStepper implements Runnable
+{
+	protected List<TaskThread>				robotThreads	= null;
+	
+	protected StateInterface				state			= null;
+	
+	protected ForkJoinPool					pool			= null;
+	
+	protected volatile boolean				running			= true;
+	
+	/**
+	 * Counts the particles that are still stepping
+	 */
+	protected CountDownLatch				remaining		= null;
+	
+	/**
+	 * The first exception thrown by a step, which stops all of the particles
+	 */
+	protected AtomicReference<Throwable>	failure			=
+																	new AtomicReference<Throwable>();
+	
+	/**
+	 * Runs one step of a particle and schedules its next step
+	 */
+	protected class ParticleStep extends RecursiveAction
+	{
+		private static final long	serialVersionUID	= 1L;
+		
+		protected int				id					= -1;
+		
+		protected boolean			initial				= false;
+		
+		public ParticleStep (int id, boolean initial)
+		{
+			this.id = id;
+			this.initial = initial;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute ()
+		{
+			try
+			{
+				if (initial)
+				{
+					robotThreads.get(id).executeInitialStep();
+				}
+				else
+				{
+					robotThreads.get(id).executeStep();
+				}
+			}
+			catch (RuntimeException e)
+			{
+				failure.compareAndSet(null, e);
+				running = false;
+			}
+			
+			if (!running || state.shouldExit())
+			{
+				remaining.countDown();
+				return;
+			}
+			
+			new ParticleStep(id, false).fork();
+		}
+	}
+	
+	/**
+	 * @param robotThreads
+	 * @param s
+	 * @param pool a pool in FIFO mode which runs the steps of the particles
+	 */
+	public AsynchronousStepper (List<TaskThread> robotThreads,
+			StateInterface s, ForkJoinPool pool)
+	{
+		if (!pool.getAsyncMode()) { throw new IllegalArgumentException(
+				"The pool must be in FIFO mode"); }
+		
+		this.robotThreads = robotThreads;
+		this.pool = pool;
+		state = s;
+	}
+	
+	public void terminate ()
+	{
+		running = false;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run ()
+	{
+		remaining = new CountDownLatch(robotThreads.size());
+		
+		for (int i = 0; i < robotThreads.size(); i++ )
+		{
+			pool.execute(new ParticleStep(i, true));
+		}
+		
+		try
+		{
+			remaining.await();
+		}
+		catch (InterruptedException e)
+		{
+			running = false;
+			return;
+		}
+		
+		if (failure.get() != null) { throw new IllegalStateException(
+				"A particle failed", failure.get()); }
+	}
+}
@@ -0,0 +1,246 @@
+/**
+ * Copyright (C) 2016 Michael Johnson
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ */
+package task.runner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import log.ApplicationLogger;
+import pso.StateRepository;
+import pso.config.PsoConfiguration;
+
+/**
+ * Runs a number of independently seeded simulations of the same
+ * {@link PsoConfiguration} concurrently. Every simulation gets its own
+ * {@link StateRepository} and {@link TaskRunner} and shares no state with the
+ * others, so it behaves exactly as the same simulation number run on its own.
+ * At most {@link BatchRunner#getParallelism()} simulations execute at once.
+ * 
+ * The configuration should set an iteration limit, otherwise each simulation
+ * only exits once it has sampled the entire search domain.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class BatchRunner
+{
+	protected PsoConfiguration	configuration	= null;
+	
+	/**
+	 * The maximum number of simulations running at the same time
+	 */
+	protected int				parallelism		= -1;
+	
+	protected ApplicationLogger	log				= ApplicationLogger
+														.getInstance();
+	
+	/**
+	 * @param conf the configuration shared by every simulation
+	 * @param parallelism the maximum number of simulations running at the same
+	 *            time
+	 */
+	public BatchRunner (PsoConfiguration conf, int parallelism)
+	{
+		if (parallelism < 1) { throw new IllegalArgumentException(
+				"Parallelism must be at least 1: " + parallelism); }
+		
+		configuration = conf;
+		this.parallelism = parallelism;
+	}
+	
+	public int getParallelism ()
+	{
+		return parallelism;
+	}
+	
+	/**
+	 * Runs the simulations numbered firstSimulation to firstSimulation +
+	 * numSimulations - 1 and waits for all of them to finish
+	 * 
+	 * @param firstSimulation
+	 * @param numSimulations
+	 * @return the results, ordered by simulation number
+	 * @throws InterruptedException
+	 * @throws ExecutionException if any of the simulations failed
+	 */
+	public BatchResult run (int firstSimulation, int numSimulations)
+			throws InterruptedException, ExecutionException
+	{
+		if (numSimulations < 0) { throw new IllegalArgumentException(
+				"Number of simulations must not be negative: " + numSimulations); }
+		
+		ExecutorService service =
+				Executors.newFixedThreadPool(Math.min(parallelism,
+						Math.max(1, numSimulations)));
+		
+		List<Future<SimulationResult>> futures =
+				new ArrayList<Future<SimulationResult>>(numSimulations);
+		
+		try
+		{
+			for (int i = 0; i < numSimulations; i++ )
+			{
+				final int simulationNumber = firstSimulation + i;
+				
+				futures.add(service.submit(new Callable<SimulationResult>()
+				{
+					@Override
+					public SimulationResult call () throws Exception
+					{
+						return runSimulation(simulationNumber);
+					}
+				}));
+			}
+			
+			List<SimulationResult> results =
+					new ArrayList<SimulationResult>(numSimulations);
+			
+			for (Future<SimulationResult> f : futures)
+			{
+				results.add(f.get());
+			}
+			
+			return new BatchResult(results, configuration.isMaximize());
+		}
+		finally
+		{
+			service.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Runs a single simulation to completion
+	 * 
+	 * @param simulationNumber the number used to seed the simulation
+	 * @return
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 */
+	public SimulationResult runSimulation (int simulationNumber)
+			throws InterruptedException, ExecutionException
+	{
+		StateRepository state = new StateRepository();
+		
+		state.initialize(simulationNumber, configuration);
+		
+		TaskRunner runner = new TaskRunner(configuration, state);
+		
+		try
+		{
+			runner.runTasks();
+			runner.awaitCompletion();
+		}
+		finally
+		{
+			runner.shutdown();
+		}
+		
+		log.logDebug("BATCH: Finished simulation %d", simulationNumber);
+		
+		return new SimulationResult(simulationNumber,
+				state.getGlobalBestValue(), state.getGlobalBestLocation(),
+				state.getGlobalBestIteration(), state.getIterationNumber());
+	}
+	
+	/**
+	 * The results of every simulation in a batch
+	 * 
+	 * @author Mike Johnson
+	 * 
+	 */
+	public static class BatchResult
+	{
+		protected List<SimulationResult>	results		= null;
+		
+		protected boolean					maximize	= false;
+		
+		public BatchResult (List<SimulationResult> results, boolean maximize)
+		{
+			this.results = Collections.unmodifiableList(results);
+			this.maximize = maximize;
+		}
+		
+		/**
+		 * @return the result of each simulation, ordered by simulation number
+		 */
+		public List<SimulationResult> getResults ()
+		{
+			return results;
+		}
+		
+		/**
+		 * Finds the simulation with the best global best value. Ties go to the
+		 * lowest simulation number.
+		 * 
+		 * @return the best result, null if the batch is empty
+		 */
+		public SimulationResult getBest ()
+		{
+			SimulationResult best = null;
+			
+			for (SimulationResult r : results)
+			{
+				if (best == null
+						|| (maximize ? r.getGlobalBestValue() > best
+								.getGlobalBestValue() : r.getGlobalBestValue() < best
+								.getGlobalBestValue()))
+				{
+					best = r;
+				}
+			}
+			
+			return best;
+		}
+		
+		/**
+		 * @return the mean of the global best values, NaN if the batch is empty
+		 */
+		public double getMeanBestValue ()
+		{
+			double sum = 0.0;
+			
+			for (SimulationResult r : results)
+			{
+				sum += r.getGlobalBestValue();
+			}
+			
+			return sum / results.size();
+		}
+		
+		/**
+		 * @return the mean iteration the global best value was found in, NaN if
+		 *         the batch is empty
+		 */
+		public double getMeanBestIteration ()
+		{
+			double sum = 0.0;
+			
+			for (SimulationResult r : results)
+			{
+				sum += r.getGlobalBestIteration();
+			}
+			
+			return sum / results.size();
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2016 Michael Johnson
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ */
+package task.runner;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import log.ApplicationLogger;
+
+import task.TaskSchedule;
+
+import pso.interfaces.StateInterface;
+
+/**
+ * Runs the {@link TaskSchedule}s of a simulation one phase at a time, instead
+ * of giving every particle its own thread. In each phase the next task of
+ * every worker is run on a {@link ForkJoinPool}, and once all of them have
+ * finished the next task of the {@link StateTaskThread} is run, which
+ * processes the {@link event.Event}s the workers dispatched during the phase.
+ * This is the same ordering that the barrier enforces when each particle has
+ * its own thread, but the number of threads no longer depends on the number
+ * of particles.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class PhaseStepper implements Runnable
+{
+	/**
+	 * The number of workers stepped by one task of the pool
+	 */
+	public static final int			BATCH_SIZE		= 16;
+	
+	protected StateTaskThread		stateThread		= null;
+	
+	protected List<TaskThread>		robotThreads	= null;
+	
+	protected StateInterface		state			= null;
+	
+	protected ForkJoinPool			pool			= null;
+	
+	protected volatile boolean		running			= true;
+	
+	protected ApplicationLogger		log				= ApplicationLogger
+															.getInstance();
+	
+	/**
+	 * Steps a range of the workers
+	 */
+	protected class StepAction extends RecursiveAction
+	{
+		private static final long	serialVersionUID	= 1L;
+		
+		protected int				from				= -1;
+		
+		protected int				to					= -1;
+		
+		protected boolean			initial				= false;
+		
+		public StepAction (int from, int to, boolean initial)
+		{
+			this.from = from;
+			this.to = to;
+			this.initial = initial;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute ()
+		{
+			if (to - from > BATCH_SIZE)
+			{
+				int mid = (from + to) >>> 1;
+				
+				invokeAll(new StepAction(from, mid, initial), new StepAction(
+						mid, to, initial));
+				
+				return;
+			}
+			
+			for (int i = from; i < to; i++ )
+			{
+				if (initial)
+				{
+					robotThreads.get(i).executeInitialStep();
+				}
+				else
+				{
+					robotThreads.get(i).executeStep();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @param stateThread
+	 * @param robotThreads
+	 * @param s
+	 * @param pool runs the tasks of the workers
+	 */
+	public PhaseStepper (StateTaskThread stateThread,
+			List<TaskThread> robotThreads, StateInterface s, ForkJoinPool pool)
+	{
+		this.stateThread = stateThread;
+		this.robotThreads = robotThreads;
+		this.pool = pool;
+		state = s;
+	}
+	
+	public void terminate ()
+	{
+		running = false;
+	}
+	
+	/**
+	 * Runs one phase: the next task of every worker, then the next task of the
+	 * state
+	 * 
+	 * @param initial whether to run the initial tasks
+	 */
+	protected void step (boolean initial)
+	{
+		pool.invoke(new StepAction(0, robotThreads.size(), initial));
+		
+		if (initial)
+		{
+			stateThread.executeInitialStep();
+		}
+		else
+		{
+			stateThread.executeStep();
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run ()
+	{
+		step(true);
+		
+		log.logDebug("STATE: Proceeding to Task Schedule");
+		
+		while (running && !state.shouldExit()
+				&& !Thread.currentThread().isInterrupted())
+		{
+			log.logDebug("Executing Phase");
+			
+			step(false);
+		}
+	}
+}
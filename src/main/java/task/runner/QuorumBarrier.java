@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2016 Michael Johnson
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ */
+package task.runner;
+
+/**
+ * A barrier which does not count its parties. The {@link StateTaskThread}
+ * decides when a phase ends, once enough of the robots have reported or a
+ * deadline has passed, and advances the barrier. Each robot waits for the
+ * phase it worked on to end. A robot that took so long that later phases have
+ * already ended is released immediately, and is told the current phase so
+ * that it can catch up.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class QuorumBarrier
+{
+	/**
+	 * The number of phases that have ended
+	 */
+	protected int	generation	= 0;
+	
+	/**
+	 * @return the current phase
+	 */
+	public synchronized int getGeneration ()
+	{
+		return generation;
+	}
+	
+	/**
+	 * Ends the current phase and releases the robots waiting on it
+	 */
+	public synchronized void advance ()
+	{
+		generation++ ;
+		
+		notifyAll();
+	}
+	
+	/**
+	 * Waits for a phase to end
+	 * 
+	 * @param phase the phase the calling robot worked on
+	 * @return the current phase, which is greater than phase
+	 * @throws InterruptedException
+	 */
+	public synchronized int await (int phase) throws InterruptedException
+	{
+		while (generation <= phase)
+		{
+			wait();
+		}
+		
+		return generation;
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2016 Michael Johnson
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ */
+package task.runner;
+
+import java.util.Arrays;
+
+/**
+ * The outcome of one simulation run by the {@link BatchRunner}
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class SimulationResult
+{
+	protected int		simulationNumber	= -1;
+	
+	protected double	globalBestValue		= Double.NaN;
+	
+	protected int[]		globalBestLocation	= null;
+	
+	protected long		globalBestIteration	= -1;
+	
+	protected long		iterations			= -1;
+	
+	public SimulationResult (int simulationNumber, double globalBestValue,
+			int[] globalBestLocation, long globalBestIteration, long iterations)
+	{
+		this.simulationNumber = simulationNumber;
+		this.globalBestValue = globalBestValue;
+		this.globalBestIteration = globalBestIteration;
+		this.iterations = iterations;
+		
+		if (globalBestLocation != null)
+		{
+			this.globalBestLocation =
+					Arrays.copyOf(globalBestLocation, globalBestLocation.length);
+		}
+	}
+	
+	/**
+	 * @return the simulation number used to seed the run
+	 */
+	public int getSimulationNumber ()
+	{
+		return simulationNumber;
+	}
+	
+	public double getGlobalBestValue ()
+	{
+		return globalBestValue;
+	}
+	
+	public int[] getGlobalBestLocation ()
+	{
+		return globalBestLocation;
+	}
+	
+	/**
+	 * @return the PSO iteration the global best value was found in
+	 */
+	public long getGlobalBestIteration ()
+	{
+		return globalBestIteration;
+	}
+	
+	/**
+	 * @return the number of PSO iterations the simulation ran for
+	 */
+	public long getIterations ()
+	{
+		return iterations;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString ()
+	{
+		return String
+				.format("SimulationResult [simulationNumber=%s, globalBestValue=%s, globalBestLocation=%s, globalBestIteration=%s, iterations=%s]",
+						simulationNumber, globalBestValue,
+						Arrays.toString(globalBestLocation),
+						globalBestIteration, iterations);
+	}
+}
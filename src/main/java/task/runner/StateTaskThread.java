@@ -16,16 +16,19 @@
  */
 package task.runner;
 
-import java.util.Observable;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Phaser;
 
 import pso.interfaces.StateInterface;
 
 import log.ApplicationLogger;
 
 import event.Event;
+import event.EventChannels;
 import event.EventListener;
+import event.events.InitializationEvent;
+import event.events.LocationEvent;
+import event.events.MoveEvent;
+import event.events.ValueEvent;
 
 /**
  * @author Mike Johnson
@@ -40,32 +43,69 @@ public class StateTaskThread extends TaskThread implements EventListener
 															.getInstance();
 	
 	/**
-	 * The queue of received events from other robots in the swarm.
+	 * The channels of received events from other robots in the swarm, one for
+	 * each type of event
 	 */
-	protected ArrayBlockingQueue<Event>	queue		= null;
+	protected EventChannels				channels	= null;
 	
 	/**
-	 * @param cb
+	 * @param p
 	 */
-	public StateTaskThread (int numRobots, CyclicBarrier cb, StateInterface s)
+	public StateTaskThread (int numRobots, Phaser p, StateInterface s)
 	{
-		super(cb, s);
+		super(p, s);
 		
-		queue = new ArrayBlockingQueue<Event>(2 * numRobots);
+		channels = createChannels(numRobots);
+	}
+	
+	/**
+	 * @param numRobots
+	 * @param qb the barrier this thread ends each phase of
+	 * @param s
+	 */
+	public StateTaskThread (int numRobots, QuorumBarrier qb, StateInterface s)
+	{
+		super(qb, s);
+		
+		channels = createChannels(numRobots);
+	}
+	
+	/**
+	 * Creates a channel for each type of {@link Event} the robots send. Each
+	 * robot sends at most one {@link Event} of a type per phase, so twice the
+	 * number of robots leaves room for robots which fell behind.
+	 * 
+	 * @param numRobots
+	 * @return
+	 */
+	protected static EventChannels createChannels (int numRobots)
+	{
+		return new EventChannels(2 * numRobots, InitializationEvent.class,
+				ValueEvent.class, LocationEvent.class, MoveEvent.class);
+	}
+	
+	/**
+	 * Gets the channels the robots send their {@link Event}s through
+	 * 
+	 * @return
+	 */
+	public EventChannels getEventChannels ()
+	{
+		return channels;
 	}
 	
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see java.util.Observer#update(java.util.Observable, java.lang.Object)
+	 * @see task.runner.TaskThread#awaitQuorum()
 	 */
 	@Override
-	public void update (Observable arg0, Object arg1)
+	protected boolean awaitQuorum ()
 	{
-		if (arg1 instanceof Event)
-		{
-			receiveEvent((Event) arg1);
-		}
+		// the state decides when the phase ends, so it never waits
+		quorum.advance();
+		
+		return false;
 	}
 	
 	/*
@@ -83,8 +123,7 @@ public class StateTaskThread extends TaskThread implements EventListener
 			log.logDebug("WORKER %02d: Adding event to STATE queue",
 					evt.getID());
 			
-			// queue.add(evt);
-			queue.put(evt);
+			channels.put(evt);
 			
 			log.logDebug("WORKER %02d: Added event to STATE queue", evt.getID());
 		}
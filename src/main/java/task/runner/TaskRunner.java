@@ -18,12 +18,17 @@ package task.runner;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
 
 import log.ApplicationLogger;
 import pso.config.PsoConfiguration;
+import pso.config.SchedulingMode;
+import pso.config.SynchronizationMode;
 import pso.interfaces.StateInterface;
 
 import task.TaskSchedule;
@@ -40,20 +45,56 @@ public class TaskRunner
 	 * The thread responsible for synchronizing all of the state information
 	 * from all of the robots
 	 */
-	protected StateTaskThread	stateThread		= null;
+	protected StateTaskThread		stateThread			= null;
 	
 	/**
 	 * A {@link List} of the different threads for each of the robots
 	 */
-	protected List<TaskThread>	robotThreads	= null;
+	protected List<TaskThread>		robotThreads		= null;
+	
+	/**
+	 * Ends each phase once the state and every robot thread have arrived,
+	 * null in the asynchronous mode or when a {@link QuorumBarrier} is used
+	 */
+	protected Phaser				barrier				= null;
 	
 	/**
 	 * Used to manage the execution of all of the simulation's threads
 	 */
-	protected ExecutorService	service			= null;
+	protected ExecutorService		service				= null;
+	
+	/**
+	 * Completes when the {@link StateTaskThread} (or the {@link PhaseStepper}
+	 * in the pooled scheduling mode) stops, which happens once the state
+	 * signals that the simulation should exit
+	 */
+	protected Future<?>				stateResult			= null;
 	
-	protected ApplicationLogger	log				= ApplicationLogger
-														.getInstance();
+	/**
+	 * Complete when each of the robot threads stops in the asynchronous mode,
+	 * where there is no state thread
+	 */
+	protected List<Future<?>>		robotResults		= null;
+	
+	/**
+	 * Steps all of the schedules one phase at a time in the pooled scheduling
+	 * mode, null otherwise
+	 */
+	protected PhaseStepper			stepper				= null;
+	
+	/**
+	 * The carrier threads of the pooled scheduling mode
+	 */
+	protected ForkJoinPool			pool				= null;
+	
+	/**
+	 * Steps the schedule of each robot independently in the pooled scheduling
+	 * mode when the asynchronous mode is used
+	 */
+	protected AsynchronousStepper	asynchronousStepper	= null;
+	
+	protected ApplicationLogger		log					= ApplicationLogger
+																.getInstance();
 	
 	/**
 	 * Constructs the {@link TaskRunner} for a given number of robots
@@ -62,33 +103,125 @@ public class TaskRunner
 	{
 		int numRobots = conf.getNumberOfParticles();
 		
-		// create the cyclic barrier
-		CyclicBarrier cb = new CyclicBarrier(numRobots + 1);
+		boolean asynchronous =
+				conf.getSynchronizationMode() == SynchronizationMode.ASYNCHRONOUS;
+		
+		// a quorum barrier replaces the phaser when phases may end
+		// before every robot has reported. Each robot needs its own thread.
+		QuorumBarrier qb = null;
+		
+		if (conf.isQuorumBarrier()
+				&& conf.getSchedulingMode() == SchedulingMode.THREAD_PER_PARTICLE)
+		{
+			qb = new QuorumBarrier();
+		}
+		else if (!asynchronous)
+		{
+			// create the phaser, the asynchronous mode has none
+			barrier = new Phaser(numRobots + 1);
+		}
 		
 		// initialize the state synchronization thread
-		stateThread = new StateTaskThread(numRobots, cb, s);
+		if (qb != null)
+		{
+			stateThread = new StateTaskThread(numRobots, qb, s);
+		}
+		else
+		{
+			stateThread = new StateTaskThread(numRobots, barrier, s);
+		}
 		
 		// initialize all of the worker threads
 		
 		robotThreads = new ArrayList<TaskThread>(numRobots);
 		for (int i = 0; i < numRobots; i++ )
 		{
-			robotThreads.add(new TaskThread(cb, s));
+			if (qb != null)
+			{
+				robotThreads.add(new TaskThread(qb, s));
+			}
+			else
+			{
+				robotThreads.add(new TaskThread(barrier, s));
+			}
+		}
+		
+		// add event listeners. In the asynchronous mode each robot updates the
+		// state itself
+		AsynchronousStateListener listener = null;
+		
+		if (asynchronous)
+		{
+			listener = new AsynchronousStateListener(s);
 		}
 		
-		// add event listeners
 		for (TaskThread tt : robotThreads)
 		{
-			tt.getEventDispatcher().addObserver(stateThread);
+			if (listener != null)
+			{
+				listener.listenTo(tt.getEventDispatcher());
+			}
+			else
+			{
+				tt.getEventDispatcher().addListener(stateThread);
+			}
 		}
 		
 		// create the executor service
-		service = Executors.newFixedThreadPool(numRobots + 1);
+		if (conf.getSchedulingMode() == SchedulingMode.POOLED)
+		{
+			int carriers = conf.getCarrierThreads();
+			
+			if (carriers < 1)
+			{
+				carriers = Runtime.getRuntime().availableProcessors();
+			}
+			
+			if (asynchronous)
+			{
+				// FIFO, so that robots take turns on the carriers
+				pool =
+						new ForkJoinPool(carriers,
+								ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+								null, true);
+				asynchronousStepper =
+						new AsynchronousStepper(robotThreads, s, pool);
+			}
+			else
+			{
+				pool = new ForkJoinPool(carriers);
+				stepper = new PhaseStepper(stateThread, robotThreads, s, pool);
+			}
+			
+			// only the stepper itself needs a dedicated thread
+			service = Executors.newSingleThreadExecutor();
+		}
+		else if (asynchronous)
+		{
+			service = Executors.newFixedThreadPool(numRobots);
+			robotResults = new ArrayList<Future<?>>(numRobots);
+		}
+		else
+		{
+			service = Executors.newFixedThreadPool(numRobots + 1);
+		}
 		
-		TaskScheduleMaker maker = new TaskScheduleMaker();
+		TaskScheduleMaker maker = new TaskScheduleMaker(s);
 		
-		TaskSchedule stateSchedule =
-				maker.makePSOStateSchedule(numRobots, stateThread.queue);
+		TaskSchedule stateSchedule = null;
+		
+		if (qb != null)
+		{
+			stateSchedule =
+					maker.makePSOStateSchedule(numRobots,
+							stateThread.getEventChannels(), conf);
+		}
+		else
+		{
+			stateSchedule =
+					maker.makePSOStateSchedule(numRobots,
+							stateThread.getEventChannels());
+		}
 		
 		ArrayList<TaskSchedule> workerSchedules = new ArrayList<TaskSchedule>();
 		
@@ -124,11 +257,62 @@ public class TaskRunner
 	
 	public void runTasks ()
 	{
-		service.submit(stateThread);
+		if (stepper != null)
+		{
+			stateResult = service.submit(stepper);
+			
+			return;
+		}
+		
+		if (asynchronousStepper != null)
+		{
+			stateResult = service.submit(asynchronousStepper);
+			
+			return;
+		}
+		
+		if (robotResults == null)
+		{
+			stateResult = service.submit(stateThread);
+		}
 		
 		for (TaskThread t : robotThreads)
 		{
-			service.submit(t);
+			Future<?> result = service.submit(t);
+			
+			if (robotResults != null)
+			{
+				robotResults.add(result);
+			}
+		}
+	}
+	
+	/**
+	 * Blocks until the simulation started by {@link TaskRunner#runTasks()} has
+	 * exited. The worker threads may still be waiting on the barrier
+	 * afterwards, so {@link TaskRunner#shutdown()} must be called to release
+	 * them.
+	 * 
+	 * @throws InterruptedException
+	 * @throws ExecutionException if the state thread failed
+	 */
+	public void awaitCompletion () throws InterruptedException,
+			ExecutionException
+	{
+		if (stateResult != null)
+		{
+			stateResult.get();
+		}
+		else if (robotResults != null && !robotResults.isEmpty())
+		{
+			for (Future<?> result : robotResults)
+			{
+				result.get();
+			}
+		}
+		else
+		{
+			throw new IllegalStateException("Tasks have not been started");
 		}
 	}
 	
@@ -141,6 +325,27 @@ public class TaskRunner
 			t.terminate();
 		}
 		
+		// releases any thread still waiting for the others
+		if (barrier != null)
+		{
+			barrier.forceTermination();
+		}
+		
 		service.shutdownNow();
+		
+		if (stepper != null)
+		{
+			stepper.terminate();
+		}
+		
+		if (asynchronousStepper != null)
+		{
+			asynchronousStepper.terminate();
+		}
+		
+		if (pool != null)
+		{
+			pool.shutdownNow();
+		}
 	}
 }
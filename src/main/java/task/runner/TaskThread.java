@@ -16,8 +16,7 @@
  */
 package task.runner;
 
-import java.util.concurrent.BrokenBarrierException;
-import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Phaser;
 
 import log.ApplicationLogger;
 
@@ -36,7 +35,10 @@ public class TaskThread implements Runnable
 {
 	protected TaskSchedule		schedule	= new TaskSchedule();
 	
-	protected CyclicBarrier		barrier		= null;
+	/**
+	 * Ends each phase once all of the threads have arrived
+	 */
+	protected Phaser			barrier		= null;
 	
 	protected boolean			running		= true;
 	
@@ -45,11 +47,35 @@ public class TaskThread implements Runnable
 	protected EventDispatcher	ed			= new EventDispatcher();
 	
 	/**
-	 * 
+	 * Used instead of the {@link Phaser} when a phase may end before
+	 * every robot has finished it
+	 */
+	protected QuorumBarrier		quorum		= null;
+	
+	/**
+	 * The phase of the {@link QuorumBarrier} this thread is working on
 	 */
-	public TaskThread (CyclicBarrier cb, StateInterface s)
+	protected int				phase		= 0;
+	
+	/**
+	 * @param p the barrier shared by all of the threads, null if the thread
+	 *            should run its schedule without waiting for the others
+	 * @param s
+	 */
+	public TaskThread (Phaser p, StateInterface s)
 	{
-		barrier = cb;
+		barrier = p;
+		state = s;
+	}
+	
+	/**
+	 * @param qb the barrier shared by all of the threads, which ends each
+	 *            phase once enough of the robots have reported
+	 * @param s
+	 */
+	public TaskThread (QuorumBarrier qb, StateInterface s)
+	{
+		quorum = qb;
 		state = s;
 	}
 	
@@ -94,6 +120,11 @@ public class TaskThread implements Runnable
 	
 	protected boolean await ()
 	{
+		if (quorum != null) { return awaitQuorum(); }
+		
+		// asynchronous threads never wait for the others
+		if (barrier == null) { return false; }
+		
 		try
 		{
 			if(this instanceof StateTaskThread)
@@ -105,9 +136,9 @@ public class TaskThread implements Runnable
 				ApplicationLogger.getInstance().logDebug("Worker Awaiting");				
 			}
 			
-			barrier.await();
-			
-			return false;
+			// the phase number is negative once the runner has terminated
+			// the barrier
+			return barrier.awaitAdvanceInterruptibly(barrier.arrive()) < 0;
 		}
 		catch (InterruptedException e)
 		{
@@ -116,7 +147,32 @@ public class TaskThread implements Runnable
 				e.printStackTrace();
 			}
 		}
-		catch (BrokenBarrierException e)
+		
+		return true;
+	}
+	
+	/**
+	 * Waits for the phase this robot worked on to end. If later phases have
+	 * ended too, their tasks are skipped so that the robot rejoins the others.
+	 * 
+	 * @return true if the thread was interrupted
+	 */
+	protected boolean awaitQuorum ()
+	{
+		try
+		{
+			int current = quorum.await(phase);
+			
+			for (int i = phase + 1; i < current; i++ )
+			{
+				schedule.nextScheduledTask();
+			}
+			
+			phase = current;
+			
+			return false;
+		}
+		catch (InterruptedException e)
 		{
 			if (running)
 			{
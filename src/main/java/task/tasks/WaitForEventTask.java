@@ -16,15 +16,19 @@
  */
 package task.tasks;
 
-import java.util.concurrent.ArrayBlockingQueue;
-
 import task.Task;
 
 import log.ApplicationLogger;
 import event.Event;
+import event.EventChannel;
+import event.EventChannels;
 import event.EventProcessor;
 
 /**
+ * Waits for the {@link Event}s of one phase. Each type of {@link Event} has
+ * its own {@link EventChannel}, so only the type handled by the
+ * {@link EventProcessor} is ever read here.
+ * 
  * @author Mike Johnson
  * 
  */
@@ -43,28 +47,32 @@ public class WaitForEventTask implements Task
 	protected EventProcessor			processor	= null;
 	
 	/**
-	 * The queue of received events from other robots in the swarm.
+	 * The channel of received events of the processed type from other robots
+	 * in the swarm.
 	 */
-	protected ArrayBlockingQueue<Event>	queue		= null;
+	protected EventChannel				channel		= null;
 	
 	/**
-	 * 
+	 * @param ep
+	 * @param eventChannels the channels the robots send their {@link Event}s
+	 *            through
 	 */
-	public WaitForEventTask (EventProcessor ep,
-			ArrayBlockingQueue<Event> eventQueue)
+	public WaitForEventTask (EventProcessor ep, EventChannels eventChannels)
 	{
 		processor = ep;
-		queue = eventQueue;
+		channel = eventChannels.getChannel(ep.getEventClass());
 	}
 	
+	/**
+	 * Copies the task. The copy reads from the same channel, since the robots
+	 * keep sending to it.
+	 * 
+	 * @param wfet
+	 */
 	public WaitForEventTask (WaitForEventTask wfet)
 	{
 		processor = wfet.processor;
-		queue =
-				new ArrayBlockingQueue<Event>(wfet.queue.size()
-						+ wfet.queue.remainingCapacity());
-		
-		queue.addAll(wfet.queue);
+		channel = wfet.channel;
 	}
 	
 	/*
@@ -94,26 +102,12 @@ public class WaitForEventTask implements Task
 			{
 				log.logDebug("Waiting for Event");
 				
-				Event evt = queue.take();
-				
-				log.logDebug("Event Received. Checking type.");
-				
-				boolean correctType = processor.checkEventType(evt);
+				Event evt = channel.take();
 				
-				log.logDebug("Correct Type: " + correctType);
+				// process it and determine if we are done waiting
+				waiting = processor.processEvent(evt);
 				
-				if (correctType)
-				{
-					// process it and determine if we are done waiting
-					waiting = processor.processEvent(evt);
-					
-					log.logDebug("Event Processed. Still waiting: " + waiting);
-				}
-				else
-				{
-					// save it, might be from a future event
-					queue.put(evt);
-				}
+				log.logDebug("Event Processed. Still waiting: " + waiting);
 			}
 			catch (InterruptedException e)
 			{
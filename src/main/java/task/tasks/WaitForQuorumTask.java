@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2016 Michael Johnson
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ */
+package task.tasks;
+
+import java.util.concurrent.TimeUnit;
+
+import task.Task;
+
+import log.ApplicationLogger;
+import event.Event;
+import event.EventChannel;
+import event.EventChannels;
+import event.eventprocessors.AbstractEventProcessor;
+
+/**
+ * Waits for the {@link Event}s of one phase like {@link WaitForEventTask}, but
+ * for a quorum barrier: the {@link AbstractEventProcessor} may run its barrier
+ * action before every robot has reported, either because its quorum was
+ * reached or because the deadline passed. A robot that fell behind may still
+ * report during a later phase of the same type, and it is up to the state to
+ * recognize the late {@link Event}.
+ * 
+ * @author Mike Johnson
+ * 
+ */
+public class WaitForQuorumTask implements Task
+{
+	/**
+	 * Shortcut reference for convenience
+	 */
+	protected ApplicationLogger			log			= ApplicationLogger
+															.getInstance();
+	
+	/**
+	 * The {@link AbstractEventProcessor} used to handle the {@link Event}s
+	 * that are received.
+	 */
+	protected AbstractEventProcessor	processor	= null;
+	
+	/**
+	 * The channel of received events of the processed type from other robots
+	 * in the swarm.
+	 */
+	protected EventChannel				channel		= null;
+	
+	/**
+	 * Milliseconds to wait for the quorum, 0 to wait forever
+	 */
+	protected long						deadline	= 0;
+	
+	/**
+	 * @param ep
+	 * @param eventChannels
+	 * @param deadline milliseconds to wait for the quorum, 0 to wait forever
+	 */
+	public WaitForQuorumTask (AbstractEventProcessor ep,
+			EventChannels eventChannels, long deadline)
+	{
+		processor = ep;
+		channel = eventChannels.getChannel(ep.getEventClass());
+		this.deadline = deadline;
+	}
+	
+	public WaitForQuorumTask (WaitForQuorumTask wfqt)
+	{
+		processor = wfqt.processor;
+		deadline = wfqt.deadline;
+		channel = wfqt.channel;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see task.Task#copy()
+	 */
+	@Override
+	public WaitForQuorumTask copy ()
+	{
+		return new WaitForQuorumTask(this);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see task.Task#execute()
+	 */
+	@Override
+	public void execute ()
+	{
+		long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadline);
+		
+		boolean waiting = true;
+		
+		while (waiting)
+		{
+			try
+			{
+				long remaining = end - System.nanoTime();
+				
+				if (deadline > 0 && remaining <= 0)
+				{
+					// end the phase with whoever has reported
+					waiting = processor.expire();
+					
+					if (!waiting)
+					{
+						break;
+					}
+				}
+				
+				Event evt = null;
+				
+				if (deadline > 0 && remaining > 0)
+				{
+					evt = channel.poll(remaining);
+				}
+				else
+				{
+					evt = channel.take();
+				}
+				
+				if (evt == null)
+				{
+					continue;
+				}
+				
+				waiting = processor.processEvent(evt);
+			}
+			catch (InterruptedException e)
+			{
+				log.logDebug(
+						"STATE: WaitForQuorum: Event %s Interrupted, stopping waiting",
+						processor.getType());
+				waiting = false;
+				break;
+			}
+		}
+	}
+}
@@ -105,7 +105,7 @@ public class ValueTask implements Task
 				.logDebug("CALCULATED FITNESS: " + value);
 		
 		// dispatch value event
-		dispatcher.dispatchEvent(new ValueEvent(id, value));
+		dispatcher.dispatchEvent(new ValueEvent(id, value, location));
 	}
 	
 }
@@ -71,6 +71,12 @@ public class TestAbstractEventProcessor extends TestCase
 			return null;
 		}
 		
+		@Override
+		public Class<? extends Event> getEventClass ()
+		{
+			return Event.class;
+		}
+		
 	}
 	
 	/*
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2016 Michael Johnson
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>
+ */
+package pso.async.implementation.fitness;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import pso.implementation.search.SearchDomainParams;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Mike Johnson
+ * 
+ */
+public class TestSoaFitnessKernels extends TestCase
+{
+	/**
+	 * The largest relative difference allowed between the scalar and SoA
+	 * results
+	 */
+	protected static final double	TOLERANCE	= 1e-9;
+	
+	/**
+	 * Test method for
+	 * {@link pso.async.implementation.fitness.SoaFitnessKernels#evaluate(FitFunction, int, double[], int)}
+	 * .
+	 */
+	@Test
+	public void testKernelsMatchScalar ()
+	{
+		Random r = new Random(1);
+		
+		for (int dim : new int[] { 1, 2, 5, 30 })
+		{
+			SearchDomainParams params = new SearchDomainParams();
+			
+			for (int i = 0; i < dim; i++ )
+			{
+				params.addAxis(-5.12, 5.12, 1000);
+			}
+			
+			// enough locations for a partial block
+			int count = SoaFitnessKernels.BLOCK_SIZE * 2 + 17;
+			int[] locations = new int[count * dim];
+			
+			for (int i = 0; i < locations.length; i++ )
+			{
+				locations[i] = r.nextInt(1000);
+			}
+			
+			for (FitFunction f : FitFunction.values())
+			{
+				if (!SoaFitnessKernels.supports(f))
+				{
+					continue;
+				}
+				
+				FitnessCalculator scalar =
+						new FitnessCalculator(params, f, false);
+				scalar.setKernel(FitnessKernel.SCALAR);
+				
+				FitnessCalculator soa =
+						new FitnessCalculator(params, f, false);
+				soa.setKernel(FitnessKernel.SOA);
+				
+				double[] expected = new double[count];
+				double[] actual = new double[count];
+				
+				scalar.calculateFitnessAll(locations, expected);
+				soa.calculateFitnessAll(locations, actual);
+				
+				for (int p = 0; p < count; p++ )
+				{
+					double allowed =
+							TOLERANCE * Math.max(1.0, Math.abs(expected[p]));
+					
+					assertEquals(f.getName() + " in " + dim + "D at " + p,
+							expected[p], actual[p], allowed);
+				}
+			}
+		}
+	}
+}